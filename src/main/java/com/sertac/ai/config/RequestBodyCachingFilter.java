@@ -13,11 +13,15 @@ import java.io.IOException;
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestBodyCachingFilter implements Filter {
 
+    // Bulk uploads are streamed; caching them for error logging would hold the whole file in memory
+    private static final String STREAMED_PATH_PREFIX = "/api/admin/users/import";
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        if (request instanceof HttpServletRequest) {
-            ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper((HttpServletRequest) request);
+        if (request instanceof HttpServletRequest httpRequest
+                && !httpRequest.getRequestURI().startsWith(STREAMED_PATH_PREFIX)) {
+            ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(httpRequest);
             chain.doFilter(wrappedRequest, response);
         } else {
             chain.doFilter(request, response);
@@ -0,0 +1,44 @@
+package com.sertac.ai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Splits scheduled work across two schedulers. The default {@code taskScheduler} runs the short,
+ * frequent jobs (audit flush, user cache poll, outbox poll, SMTP idle eviction). Batched purges and
+ * the revocation filter rebuild can hold a thread for minutes, so they name
+ * {@link #MAINTENANCE_SCHEDULER} and run on a pool of {@code auth.maintenance.pool-size} threads
+ * instead of delaying the frequent jobs.
+ *
+ * <p>Declaring a scheduler replaces Boot's auto-configured one, and any executor bean makes Boot
+ * back off from {@code applicationTaskExecutor}, so both are declared here from Boot's builders
+ * and still honour {@code spring.task.scheduling.*} and {@code spring.task.execution.*}.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String MAINTENANCE_SCHEDULER = "maintenanceScheduler";
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = MAINTENANCE_SCHEDULER)
+    public ThreadPoolTaskScheduler maintenanceScheduler(@Value("${auth.maintenance.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("maintenance-");
+        return scheduler;
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sertac.ai.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.service.AuthService;
+
+/**
+ * Resolves {@link TokenPrincipal} controller parameters from the {@code Authorization} header.
+ * The verified principal is stored as a request attribute, so a token is verified at most once
+ * per request no matter how many handlers or parameters ask for it.
+ */
+@Component
+public class TokenPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    static final String PRINCIPAL_ATTRIBUTE = TokenPrincipal.class.getName();
+
+    private final AuthService authService;
+
+    public TokenPrincipalArgumentResolver(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @Override
+    public boolean supportsParameter(@NonNull MethodParameter parameter) {
+        return TokenPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public TokenPrincipal resolveArgument(@NonNull MethodParameter parameter, ModelAndViewContainer mavContainer,
+            @NonNull NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object cached = webRequest.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof TokenPrincipal principal) {
+            return principal;
+        }
+
+        TokenPrincipal principal = authService.verifyAccessToken(webRequest.getHeader(HttpHeaders.AUTHORIZATION));
+        webRequest.setAttribute(PRINCIPAL_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
@@ -0,0 +1,109 @@
+package com.sertac.ai.controller;
+
+import com.sertac.ai.model.dto.UserImportResponse;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.security.AdminAuthorizer;
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.service.AdminQueryService;
+import com.sertac.ai.service.PageCursor;
+import com.sertac.ai.service.UserBulkService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * User administration for users listed in {@code auth.admin.emails}. Listings are keyset
+ * paginated: pass the {@code nextCursor} of one page as {@code cursor} to get the next. Imports
+ * and exports are streamed, so large exports may need a longer
+ * {@code spring.mvc.async.request-timeout}.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminController {
+
+    static final String TEXT_CSV = "text/csv";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserBulkService userBulkService;
+    private final AdminQueryService adminQueryService;
+    private final AdminAuthorizer adminAuthorizer;
+
+    public AdminController(UserBulkService userBulkService, AdminQueryService adminQueryService,
+                           AdminAuthorizer adminAuthorizer) {
+        this.userBulkService = userBulkService;
+        this.adminQueryService = adminQueryService;
+        this.adminAuthorizer = adminAuthorizer;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listUsers(TokenPrincipal principal,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        adminAuthorizer.requireAdmin(principal);
+        long afterId = PageCursor.decodeLong(PageCursor.USERS, cursor);
+        int pageSize = pageSize(limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> adminQueryService.writeUsers(afterId, pageSize, output));
+    }
+
+    @GetMapping("/{id}/sessions")
+    public ResponseEntity<StreamingResponseBody> listSessions(TokenPrincipal principal,
+                                                              @PathVariable long id,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "100") int limit) {
+        adminAuthorizer.requireAdmin(principal);
+        String afterTokenId = PageCursor.decode(PageCursor.SESSIONS, cursor);
+        int pageSize = pageSize(limit);
+        // Resolved before streaming starts, so an unknown user is still a plain 404
+        User user = adminQueryService.findUser(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> adminQueryService.writeSessions(user, afterTokenId, pageSize, output));
+    }
+
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public ResponseEntity<UserImportResponse> importUsers(TokenPrincipal principal, HttpServletRequest request)
+            throws IOException {
+        adminAuthorizer.requireAdmin(principal);
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV));
+        UserBulkService.Format format = csv ? UserBulkService.Format.CSV : UserBulkService.Format.NDJSON;
+        return ResponseEntity.ok(userBulkService.importUsers(request.getInputStream(), format));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(TokenPrincipal principal,
+                                                             @RequestParam(defaultValue = "ndjson") String format) {
+        adminAuthorizer.requireAdmin(principal);
+        UserBulkService.Format exportFormat = parseFormat(format);
+        String contentType = exportFormat == UserBulkService.Format.CSV ? TEXT_CSV : APPLICATION_NDJSON;
+        String filename = "users." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(output -> userBulkService.exportUsers(output, exportFormat));
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static UserBulkService.Format parseFormat(String format) {
+        try {
+            return UserBulkService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported format: " + format);
+        }
+    }
+}
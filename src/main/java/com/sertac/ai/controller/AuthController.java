@@ -1,35 +1,76 @@
 package com.sertac.ai.controller;
 
+import com.sertac.ai.config.ClientIpResolver;
+import com.sertac.ai.email.EmailUtils;
 import com.sertac.ai.model.dto.VerifyCodeResponse;
+import com.sertac.ai.model.dto.IntrospectionRequest;
+import com.sertac.ai.model.dto.IntrospectionResponse;
 import com.sertac.ai.model.dto.SendVerificationCodeRequest;
 import com.sertac.ai.model.dto.SendVerificationCodeResponse;
 import com.sertac.ai.model.dto.VerifyCodeRequest;
 import com.sertac.ai.model.dto.RefreshTokenRequest;
 import com.sertac.ai.model.dto.RefreshTokenResponse;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.model.exception.TooManyRequestsException;
+import com.sertac.ai.model.exception.VerificationException;
 import com.sertac.ai.service.AuthService;
+import com.sertac.ai.service.TokenIntrospectionService;
+import com.sertac.ai.throttle.CredentialGuessingDetector;
+import com.sertac.ai.throttle.SendThrottle;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final ClientIpResolver clientIpResolver;
+    private final SendThrottle sendThrottle;
+    private final CredentialGuessingDetector credentialGuessingDetector;
+    private final boolean emailProviderRules;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, TokenIntrospectionService tokenIntrospectionService,
+                          ClientIpResolver clientIpResolver, SendThrottle sendThrottle,
+                          CredentialGuessingDetector credentialGuessingDetector,
+                          @Value("${auth.email.provider-rules:false}") boolean emailProviderRules) {
         this.authService = authService;
+        this.tokenIntrospectionService = tokenIntrospectionService;
+        this.clientIpResolver = clientIpResolver;
+        this.sendThrottle = sendThrottle;
+        this.credentialGuessingDetector = credentialGuessingDetector;
+        this.emailProviderRules = emailProviderRules;
     }
 
     @PostMapping("/send-verification")
-    public ResponseEntity<SendVerificationCodeResponse> sendVerificationCode(@RequestBody SendVerificationCodeRequest request) {
+    public ResponseEntity<SendVerificationCodeResponse> sendVerificationCode(@RequestBody SendVerificationCodeRequest request,
+                                                                             HttpServletRequest httpRequest) {
+        request.setEmail(canonicalEmail(request.getEmail()));
+        // Cheap in-memory limits first, outside any transaction, so floods never reach the database or SMTP
+        sendThrottle.acquire(request.getEmail(), clientIpResolver.resolve(httpRequest));
         SendVerificationCodeResponse response = authService.sendVerificationCode(request);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/verify-code")
-    public ResponseEntity<VerifyCodeResponse> verifyCode(@RequestBody VerifyCodeRequest request) {
-        VerifyCodeResponse result = authService.verifyCode(request);
-        return ResponseEntity.ok(result);
+    public ResponseEntity<VerifyCodeResponse> verifyCode(@RequestBody VerifyCodeRequest request, HttpServletRequest httpRequest) {
+        request.setEmail(canonicalEmail(request.getEmail()));
+        String clientIp = clientIpResolver.resolve(httpRequest);
+        // Clients or email domains with too many recent failures are turned away before any transaction starts
+        if (credentialGuessingDetector.isSuspect(clientIp, request.getEmail())) {
+            throw new TooManyRequestsException("Too many failed verification attempts");
+        }
+        try {
+            VerifyCodeResponse result = authService.verifyCode(request);
+            return ResponseEntity.ok(result);
+        } catch (VerificationException e) {
+            credentialGuessingDetector.recordFailure(clientIp, request.getEmail());
+            throw e;
+        }
     }
 
     @PostMapping("/refresh-token")
@@ -37,4 +78,19 @@ public class AuthController {
         RefreshTokenResponse response = authService.refreshToken(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestBody IntrospectionRequest request) {
+        IntrospectionResponse response = tokenIntrospectionService.introspect(request);
+        return ResponseEntity.ok(response);
+    }
+
+    // Emails are validated and canonicalized once, here, so everything downstream sees one spelling
+    private String canonicalEmail(String email) {
+        String canonical = EmailUtils.canonicalize(email, emailProviderRules);
+        if (canonical == null) {
+            throw new BadRequestException("Invalid email format");
+        }
+        return canonical;
+    }
 }
@@ -0,0 +1,32 @@
+package com.sertac.ai.controller;
+
+import com.sertac.ai.model.dto.JwksResponse;
+import com.sertac.ai.security.SigningKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+
+    private final SigningKeyRing signingKeyRing;
+    private final Duration maxAge;
+
+    // max-age must stay below auth.signing-key.publish-ahead so caches see a key before it signs
+    public JwksController(SigningKeyRing signingKeyRing,
+                          @Value("${auth.jwks.max-age:PT1H}") Duration maxAge) {
+        this.signingKeyRing = signingKeyRing;
+        this.maxAge = maxAge;
+    }
+
+    @GetMapping({"/.well-known/jwks.json", "/api/auth/jwks"})
+    public ResponseEntity<JwksResponse> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(signingKeyRing.jwks());
+    }
+}
@@ -1,8 +1,8 @@
 package com.sertac.ai.controller;
 
 import com.sertac.ai.mapper.UserMapper;
+import com.sertac.ai.security.TokenPrincipal;
 import com.sertac.ai.service.UserService;
-import com.sertac.ai.service.AuthService; // Import AuthService
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,17 +12,14 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
-    private final AuthService authService; // Add this line
 
-    public UserController(UserService userService, AuthService authService) { // Update constructor
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.authService = authService;
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String token) {
-        String userEmail = authService.getUserEmailFromToken(token);
-        return ResponseEntity.ok(UserMapper.mapUserToUserResponse(userService.findByEmail(userEmail)));
+    public ResponseEntity<?> getCurrentUser(TokenPrincipal principal) {
+        return ResponseEntity.ok(UserMapper.mapUserToUserResponse(userService.findByEmail(principal.getSubject())));
     }
 
     // Add more user-related endpoints as needed
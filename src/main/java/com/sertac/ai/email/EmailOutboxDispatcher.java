@@ -0,0 +1,227 @@
+package com.sertac.ai.email;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sertac.ai.email.SmtpConnectionPool.SmtpConnection;
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.model.event.EmailQueuedEvent;
+import com.sertac.ai.service.EmailOutboxService;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Drains the email outbox. A single coordinator thread claims due messages in batches and hands
+ * them to a bounded pool of sender threads, so SMTP latency never holds a request thread or a
+ * database connection. Each sender submits its share of the batch over one pooled SMTP connection
+ * (see {@link SmtpConnectionPool}) rather than connecting per message.
+ * <p>
+ * The coordinator is nudged right after a message is committed and also polls, which picks up
+ * retries and messages whose sender died mid-lease.
+ * <p>
+ * Failed sends are retried with jittered exponential backoff, up to
+ * {@code mail.outbox.max-attempts} attempts, after which the message is marked {@code FAILED}.
+ * Delivery is at least once: a message sent just before its sender dies is sent again once its
+ * lease expires.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService emailOutboxService;
+    private final SmtpConnectionPool connectionPool;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Clock clock;
+    private final ExecutorService coordinator;
+    private final ExecutorService senders;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    @Autowired
+    public EmailOutboxDispatcher(EmailOutboxService emailOutboxService,
+                                 SmtpConnectionPool connectionPool,
+                                 @Value("${mail.outbox.workers:4}") int workers,
+                                 @Value("${mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${mail.outbox.lease:PT5M}") Duration lease,
+                                 @Value("${mail.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+                                 @Value("${mail.outbox.max-backoff:PT1H}") Duration maxBackoff) {
+        this(emailOutboxService, connectionPool, workers, batchSize, maxAttempts, lease, initialBackoff, maxBackoff, Clock.systemUTC());
+    }
+
+    EmailOutboxDispatcher(EmailOutboxService emailOutboxService, SmtpConnectionPool connectionPool, int workers, int batchSize,
+                          int maxAttempts, Duration lease, Duration initialBackoff, Duration maxBackoff, Clock clock) {
+        this.emailOutboxService = emailOutboxService;
+        this.connectionPool = connectionPool;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.clock = clock;
+        this.coordinator = Executors.newSingleThreadExecutor(daemonThreads("email-outbox-dispatcher"));
+        this.senders = Executors.newFixedThreadPool(workers, daemonThreads("email-outbox-sender"));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        requestDrain();
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:PT5S}")
+    public void poll() {
+        requestDrain();
+    }
+
+    private void requestDrain() {
+        drainRequested.set(true);
+        if (!draining.get()) {
+            coordinator.execute(this::drain);
+        }
+    }
+
+    /**
+     * Sends every message that is currently due and returns once they have all been attempted.
+     */
+    void drainNow() {
+        drainRequested.set(true);
+        drain();
+    }
+
+    private void drain() {
+        // A request that arrives just before draining is cleared sees draining == true and does not
+        // schedule another drain, so re-check after clearing it
+        do {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                while (drainRequested.getAndSet(false)) {
+                    List<EmailOutbox> batch;
+                    do {
+                        batch = emailOutboxService.claimDue(batchSize, lease);
+                        sendAll(batch);
+                    } while (batch.size() == batchSize);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Email outbox drain failed", e);
+            } finally {
+                draining.set(false);
+            }
+        } while (drainRequested.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        senders.shutdown();
+    }
+
+    private void sendAll(List<EmailOutbox> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int chunkSize = (batch.size() + workers - 1) / workers;
+        List<CompletableFuture<Void>> sends = new ArrayList<>(workers);
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<EmailOutbox> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            sends.add(CompletableFuture.runAsync(() -> sendChunk(chunk), senders));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void sendChunk(List<EmailOutbox> chunk) {
+        SmtpConnection connection = null;
+        try {
+            for (EmailOutbox message : chunk) {
+                try {
+                    if (connection == null) {
+                        connection = connectionPool.borrow();
+                    }
+                    connection.send(toMimeMessage(message));
+                    emailOutboxService.markSent(message.getId());
+                } catch (MessagingException e) {
+                    // A rejected message leaves the connection usable; anything else means it broke,
+                    // so the rest of the chunk continues on a fresh one
+                    if (connection != null && !(e instanceof SendFailedException)) {
+                        connectionPool.release(connection);
+                        connection = null;
+                    }
+                    attemptFailed(message, e);
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connectionPool.release(connection);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox message) throws MessagingException {
+        MimeMessage mimeMessage = connectionPool.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, connectionPool.getDefaultEncoding());
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody());
+        return mimeMessage;
+    }
+
+    private void attemptFailed(EmailOutbox message, MessagingException e) {
+        Instant retryAt = message.getAttempts() >= maxAttempts ? null : clock.instant().plus(backoff(message.getAttempts()));
+        if (retryAt == null) {
+            logger.error("Giving up on email {} after {} attempts", message.getId(), message.getAttempts(), e);
+        } else {
+            logger.warn("Sending email {} failed (attempt {}), retrying at {}", message.getId(), message.getAttempts(), retryAt, e);
+        }
+        emailOutboxService.markAttemptFailed(message.getId(), e.getMessage(), retryAt);
+    }
+
+    /**
+     * Delay before the retry that follows attempt number {@code attempts}: a random duration between
+     * half and all of {@code initialBackoff * 2^(attempts - 1)}, capped at {@code maxBackoff}.
+     */
+    Duration backoff(int attempts) {
+        long ceiling = initialBackoff.toMillis() << Math.min(Math.max(attempts - 1, 0), 30);
+        ceiling = Math.min(Math.max(ceiling, 1), maxBackoff.toMillis());
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
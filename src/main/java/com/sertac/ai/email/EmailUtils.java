@@ -1,8 +1,117 @@
 package com.sertac.ai.email;
 
 public class EmailUtils {
+
+    private static final String GMAIL = "gmail.com";
+    private static final String GOOGLEMAIL = "googlemail.com";
+
+    /**
+     * Returns {@code true} if {@link #canonicalize(String)} accepts {@code email}.
+     */
     public static boolean isValidEmail(String email) {
-        String emailRegex = "^[A-Za-z0-9+_.-]+@(.+)$";
-        return email.matches(emailRegex);
+        return canonicalize(email) != null;
+    }
+
+    public static String canonicalize(String email) {
+        return canonicalize(email, false);
+    }
+
+    /**
+     * Validates {@code email} and returns its canonical form, or {@code null} if it is invalid.
+     * <p>
+     * The address is trimmed and lower-cased. The local part may hold ASCII letters, digits and
+     * {@code + _ . -}. The domain may hold letters, digits, {@code -} and non-empty dot-separated
+     * labels. With {@code providerRules}, Gmail addresses also lose their dots and {@code +tag}
+     * and {@code googlemail.com} becomes {@code gmail.com}, as Gmail delivers all of those to one
+     * mailbox.
+     * <p>
+     * This is a single pass over the input, and an input that is already canonical is returned
+     * as is, without allocating.
+     */
+    public static String canonicalize(String email, boolean providerRules) {
+        if (email == null) {
+            return null;
+        }
+        int start = 0;
+        int end = email.length();
+        while (start < end && email.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && email.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int at = -1;
+        boolean canonical = true;
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            if (at < 0) {
+                if (c == '@') {
+                    if (i == start) {
+                        return null;
+                    }
+                    at = i;
+                } else if (isUpperAscii(c)) {
+                    canonical = false;
+                } else if (!isLocalChar(c)) {
+                    return null;
+                }
+            } else if (c == '.') {
+                // No empty labels: not first, not last, not after another dot
+                if (i == at + 1 || i == end - 1 || email.charAt(i - 1) == '.') {
+                    return null;
+                }
+            } else if (c != '-' && !Character.isLetterOrDigit(c)) {
+                return null;
+            } else if (Character.toLowerCase(c) != c) {
+                canonical = false;
+            }
+        }
+        if (at < 0 || at == end - 1) {
+            return null;
+        }
+
+        if (providerRules && isGmail(email, at + 1, end)) {
+            return canonicalGmail(email, start, at);
+        }
+        if (canonical) {
+            return start == 0 && end == email.length() ? email : email.substring(start, end);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(email.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static boolean isLocalChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isUpperAscii(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isGmail(String email, int from, int end) {
+        int length = end - from;
+        return (length == GMAIL.length() && email.regionMatches(true, from, GMAIL, 0, length))
+                || (length == GOOGLEMAIL.length() && email.regionMatches(true, from, GOOGLEMAIL, 0, length));
+    }
+
+    private static String canonicalGmail(String email, int start, int at) {
+        StringBuilder canonical = new StringBuilder(at - start + 1 + GMAIL.length());
+        for (int i = start; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '+') {
+                break;
+            }
+            if (c != '.') {
+                canonical.append(Character.toLowerCase(c));
+            }
+        }
+        if (canonical.isEmpty()) {
+            return null;
+        }
+        return canonical.append('@').append(GMAIL).toString();
     }
 }
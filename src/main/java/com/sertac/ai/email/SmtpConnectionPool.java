@@ -0,0 +1,269 @@
+package com.sertac.ai.email;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Keeps connected, authenticated SMTP transports alive between sends, so a burst of messages pays
+ * for the TCP, TLS and AUTH round trips once per connection instead of once per message.
+ * <p>
+ * Connection settings come from the Boot-configured {@link JavaMailSenderImpl} ({@code spring.mail.*}).
+ * At most {@code mail.pool.max-connections} transports are open at once. A connection is closed
+ * instead of being returned when it failed, after {@code mail.pool.max-messages-per-connection}
+ * messages (servers commonly cap this), or once it has been idle for {@code mail.pool.max-idle};
+ * a connection idle for longer than {@code mail.pool.validate-after} is checked with {@code NOOP}
+ * before it is reused.
+ * <p>
+ * Metrics are per pool rather than tagged per connection, to keep cardinality bounded:
+ * {@code mail.smtp.connections.opened}, {@code mail.smtp.connection.setup} and
+ * {@code mail.smtp.connection.messages} (messages sent over each connection's lifetime), plus
+ * {@code mail.smtp.messages{outcome}} and the {@code mail.smtp.connections.idle/active} gauges.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final long validateAfterNanos;
+    private final long borrowTimeoutNanos;
+    private final Ticker ticker;
+    private final Semaphore permits;
+    private final BlockingDeque<SmtpConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private final Counter opened;
+    private final Timer setup;
+    private final DistributionSummary messagesPerConnection;
+    private final Counter sent;
+    private final Counter rejected;
+    private final Counter failed;
+
+    @Autowired
+    public SmtpConnectionPool(JavaMailSenderImpl mailSender,
+                              @Value("${mail.pool.max-connections:4}") int maxConnections,
+                              @Value("${mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                              @Value("${mail.pool.max-idle:PT30S}") Duration maxIdle,
+                              @Value("${mail.pool.validate-after:PT5S}") Duration validateAfter,
+                              @Value("${mail.pool.borrow-timeout:PT30S}") Duration borrowTimeout,
+                              MeterRegistry meterRegistry) {
+        this(mailSender, maxConnections, maxMessagesPerConnection, maxIdle, validateAfter, borrowTimeout,
+                meterRegistry, Ticker.systemTicker());
+    }
+
+    SmtpConnectionPool(JavaMailSenderImpl mailSender, int maxConnections, int maxMessagesPerConnection, Duration maxIdle,
+                       Duration validateAfter, Duration borrowTimeout, Ticker ticker) {
+        this(mailSender, maxConnections, maxMessagesPerConnection, maxIdle, validateAfter, borrowTimeout,
+                new SimpleMeterRegistry(), ticker);
+    }
+
+    private SmtpConnectionPool(JavaMailSenderImpl mailSender, int maxConnections, int maxMessagesPerConnection,
+                               Duration maxIdle, Duration validateAfter, Duration borrowTimeout,
+                               MeterRegistry meterRegistry, Ticker ticker) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.borrowTimeoutNanos = borrowTimeout.toNanos();
+        this.ticker = ticker;
+        this.permits = new Semaphore(maxConnections, true);
+
+        this.opened = Counter.builder("mail.smtp.connections.opened").register(meterRegistry);
+        this.setup = Timer.builder("mail.smtp.connection.setup")
+                .description("Time to connect and authenticate an SMTP transport")
+                .register(meterRegistry);
+        this.messagesPerConnection = DistributionSummary.builder("mail.smtp.connection.messages")
+                .description("Messages sent over an SMTP connection before it was closed")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.smtp.messages").tag("outcome", "sent").register(meterRegistry);
+        this.rejected = Counter.builder("mail.smtp.messages").tag("outcome", "rejected").register(meterRegistry);
+        this.failed = Counter.builder("mail.smtp.messages").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("mail.smtp.connections.idle", idle, BlockingDeque::size).register(meterRegistry);
+        Gauge.builder("mail.smtp.connections.active", this, pool -> pool.open.get() - pool.idle.size())
+                .register(meterRegistry);
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    public String getDefaultEncoding() {
+        return mailSender.getDefaultEncoding();
+    }
+
+    /**
+     * Returns an open connection, reusing an idle one when possible. The caller must hand it back
+     * with {@link #release(SmtpConnection)}.
+     */
+    public SmtpConnection borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+
+        try {
+            SmtpConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isReusable(connection)) {
+                    return connection;
+                }
+                close(connection);
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns {@code connection} to the pool, or closes it if it broke or has sent its quota.
+     */
+    public void release(SmtpConnection connection) {
+        try {
+            if (connection.broken || connection.messages >= maxMessagesPerConnection) {
+                close(connection);
+            } else {
+                connection.lastUsed = ticker.read();
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.pool.eviction-interval:PT30S}")
+    public void evictIdle() {
+        long now = ticker.read();
+        // The deque is used as a stack, so the longest-idle connections sit at the tail
+        SmtpConnection connection;
+        while ((connection = idle.peekLast()) != null && now - connection.lastUsed > maxIdleNanos) {
+            if (idle.removeLastOccurrence(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        SmtpConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+
+    int openCount() {
+        return open.get();
+    }
+
+    private boolean isReusable(SmtpConnection connection) {
+        long idleNanos = ticker.read() - connection.lastUsed;
+        if (idleNanos > maxIdleNanos) {
+            return false;
+        }
+        // isConnected() issues a NOOP, so only pay for it when the server may have dropped us
+        return idleNanos <= validateAfterNanos || connection.transport.isConnected();
+    }
+
+    private SmtpConnection connect() throws MessagingException {
+        Session session = mailSender.getSession();
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport transport = session.getTransport(protocol);
+        long start = ticker.read();
+        String username = mailSender.getUsername();
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username,
+                username != null ? mailSender.getPassword() : null);
+        setup.record(ticker.read() - start, TimeUnit.NANOSECONDS);
+        opened.increment();
+        open.incrementAndGet();
+        return new SmtpConnection(transport, ticker.read());
+    }
+
+    private void close(SmtpConnection connection) {
+        open.decrementAndGet();
+        messagesPerConnection.record(connection.messages);
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Closing SMTP connection failed", e);
+        }
+    }
+
+    /**
+     * A connected transport on loan from the pool. Not thread-safe; use it from one thread at a time.
+     */
+    public final class SmtpConnection {
+
+        private final Transport transport;
+        private volatile long lastUsed;
+        private int messages;
+        private boolean broken;
+
+        private SmtpConnection(Transport transport, long lastUsed) {
+            this.transport = transport;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * Sends {@code message} over this connection. A {@link SendFailedException} means the server
+         * rejected the message and the connection is still usable; any other failure marks the
+         * connection broken, and it is closed when released.
+         */
+        public void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+                messages++;
+                sent.increment();
+            } catch (SendFailedException e) {
+                rejected.increment();
+                throw e;
+            } catch (MessagingException | RuntimeException e) {
+                broken = true;
+                failed.increment();
+                throw e;
+            }
+        }
+    }
+}
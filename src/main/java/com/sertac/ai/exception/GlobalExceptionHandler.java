@@ -4,14 +4,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.model.exception.ForbiddenException;
+import com.sertac.ai.model.exception.NotFoundException;
+import com.sertac.ai.model.exception.TooManyRequestsException;
+
 import jakarta.servlet.http.HttpServletRequest;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @ControllerAdvice
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -19,6 +26,39 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> handleBadRequestException(BadRequestException e, HttpServletRequest request) {
+        logger.warn("Rejected request [Method: {}, URI: {}, IP: {}]: {}",
+                request.getMethod(), request.getRequestURI(), request.getRemoteAddr(), e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<String> handleForbiddenException(ForbiddenException e, HttpServletRequest request) {
+        logger.warn("Forbidden request [Method: {}, URI: {}, IP: {}]: {}",
+                request.getMethod(), request.getRequestURI(), request.getRemoteAddr(), e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<String> handleNotFoundException(NotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> handleTooManyRequestsException(TooManyRequestsException e, HttpServletRequest request) {
+        logger.warn("Throttled request [Method: {}, URI: {}, IP: {}]: {}",
+                request.getMethod(), request.getRequestURI(), request.getRemoteAddr(), e.getMessage());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS);
+        Duration retryAfter = e.getRetryAfter();
+        if (retryAfter != null) {
+            // Retry-After takes whole seconds; round up so a client retrying on time is allowed
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        return response.body(e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception e, HttpServletRequest request) {
         String queryParams = request.getQueryString();
@@ -0,0 +1,30 @@
+package com.sertac.ai.model.dto;
+
+import java.util.Date;
+
+/**
+ * Row of the admin session listing: an active refresh token, without its hash.
+ */
+public class AdminSessionSummary {
+    private final String tokenId;
+    private final int epoch;
+    private final Date expiryDate;
+
+    public AdminSessionSummary(String tokenId, int epoch, Date expiryDate) {
+        this.tokenId = tokenId;
+        this.epoch = epoch;
+        this.expiryDate = expiryDate;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public Date getExpiryDate() {
+        return expiryDate;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sertac.ai.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the admin user listing, projected straight from {@code users} without loading entities.
+ */
+public class AdminUserSummary {
+    private final Long id;
+    private final String email;
+    private final LocalDateTime createdAt;
+    private final int tokenEpoch;
+
+    public AdminUserSummary(Long id, String email, LocalDateTime createdAt, int tokenEpoch) {
+        this.id = id;
+        this.email = email;
+        this.createdAt = createdAt;
+        this.tokenEpoch = tokenEpoch;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getTokenEpoch() {
+        return tokenEpoch;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sertac.ai.model.dto;
+
+import java.util.List;
+
+public class IntrospectionRequest {
+    private List<String> tokens;
+
+    public IntrospectionRequest() {
+    }
+
+    public IntrospectionRequest(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+}
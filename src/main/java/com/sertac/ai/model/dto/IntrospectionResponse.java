@@ -0,0 +1,22 @@
+package com.sertac.ai.model.dto;
+
+import java.util.List;
+
+public class IntrospectionResponse {
+    private List<TokenIntrospection> results;
+
+    public IntrospectionResponse() {
+    }
+
+    public IntrospectionResponse(List<TokenIntrospection> results) {
+        this.results = results;
+    }
+
+    public List<TokenIntrospection> getResults() {
+        return results;
+    }
+
+    public void setResults(List<TokenIntrospection> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,52 @@
+package com.sertac.ai.model.dto;
+
+public class JwkResponse {
+    private String kty;
+    private String crv;
+    private String kid;
+    private String use;
+    private String alg;
+    private String x;
+    private String y;
+
+    public JwkResponse() {
+    }
+
+    public JwkResponse(String kty, String crv, String kid, String use, String alg, String x, String y) {
+        this.kty = kty;
+        this.crv = crv;
+        this.kid = kid;
+        this.use = use;
+        this.alg = alg;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getKty() {
+        return kty;
+    }
+
+    public String getCrv() {
+        return crv;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public String getUse() {
+        return use;
+    }
+
+    public String getAlg() {
+        return alg;
+    }
+
+    public String getX() {
+        return x;
+    }
+
+    public String getY() {
+        return y;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sertac.ai.model.dto;
+
+import java.util.List;
+
+public class JwksResponse {
+    private List<JwkResponse> keys;
+
+    public JwksResponse() {
+    }
+
+    public JwksResponse(List<JwkResponse> keys) {
+        this.keys = keys;
+    }
+
+    public List<JwkResponse> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<JwkResponse> keys) {
+        this.keys = keys;
+    }
+}
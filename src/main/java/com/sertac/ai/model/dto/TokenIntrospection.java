@@ -0,0 +1,52 @@
+package com.sertac.ai.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Per-token result in the RFC 7662 shape: inactive tokens only carry {@code active=false}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null, null);
+
+    private boolean active;
+    private String sub;
+    private Long iat;
+    private Long exp;
+    private String jti;
+
+    public TokenIntrospection() {
+    }
+
+    public TokenIntrospection(boolean active, String sub, Long iat, Long exp, String jti) {
+        this.active = active;
+        this.sub = sub;
+        this.iat = iat;
+        this.exp = exp;
+        this.jti = jti;
+    }
+
+    public static TokenIntrospection inactive() {
+        return INACTIVE;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public String getSub() {
+        return sub;
+    }
+
+    public Long getIat() {
+        return iat;
+    }
+
+    public Long getExp() {
+        return exp;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+}
@@ -9,12 +9,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_email_status", columnList = "email, status"),
+    @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+    @Index(name = "idx_refresh_tokens_revoked_at", columnList = "revoked_at")
+})
 public class RefreshToken {
     @Id
     @Column(name = "token_id", nullable = false, unique = true)
@@ -23,8 +28,10 @@ public class RefreshToken {
     @Column(name = "email", nullable = false)
     private String email;
 
-    @Column(name = "token", nullable = false, unique = true)
-    private String token;
+    // Hex SHA-256 of the signed JWT; lookups go through the token_id primary key and this
+    // only confirms that the presented token is the one that was issued
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
 
     @Column(name = "expiry_date", nullable = false)
     @Temporal(TemporalType.TIMESTAMP)
@@ -34,17 +41,35 @@ public class RefreshToken {
     @Enumerated(EnumType.STRING)
     private RefreshTokenStatus status;
 
+    // When the token stopped being ACTIVE; drives the purge of revoked rows
+    @Column(name = "revoked_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date revokedAt;
+
+    // The user's token epoch when this token was issued
+    @Column(name = "epoch", nullable = false)
+    private int epoch;
+
     public RefreshToken() {
     }
 
-    public RefreshToken(String tokenId, String email, String token, Date expiryDate) {
+    public RefreshToken(String tokenId, String email, int epoch, String tokenHash, Date expiryDate) {
         this.tokenId = tokenId;
         this.email = email;
-        this.token = token;
+        this.epoch = epoch;
+        this.tokenHash = tokenHash;
         this.expiryDate = expiryDate;
         this.status = RefreshTokenStatus.ACTIVE;
     }
 
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -53,12 +78,12 @@ public class RefreshToken {
         this.email = email;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public Date getExpiryDate() {
@@ -69,6 +94,22 @@ public class RefreshToken {
         this.expiryDate = expiryDate;
     }
 
+    public Date getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Date revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(int epoch) {
+        this.epoch = epoch;
+    }
+
     public RefreshTokenStatus getStatus() {
         return status;
     }
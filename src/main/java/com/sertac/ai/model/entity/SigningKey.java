@@ -0,0 +1,109 @@
+package com.sertac.ai.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "signing_keys")
+public class SigningKey {
+    @Id
+    @Column(name = "kid", nullable = false, length = 64)
+    private String kid;
+
+    @Column(name = "algorithm", nullable = false, length = 16)
+    private String algorithm;
+
+    @Lob
+    @Column(name = "public_key", nullable = false)
+    private String publicKey;
+
+    @Lob
+    @Column(name = "private_key", nullable = false)
+    private String privateKey;
+
+    // Keys are published in the JWKS from creation, used for signing between
+    // activatedAt and retiresAt, and accepted for verification until expiresAt.
+    @Column(name = "activated_at", nullable = false)
+    private Instant activatedAt;
+
+    @Column(name = "retires_at", nullable = false)
+    private Instant retiresAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public SigningKey() {
+    }
+
+    public SigningKey(String kid, String algorithm, String publicKey, String privateKey,
+                      Instant activatedAt, Instant retiresAt, Instant expiresAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.activatedAt = activatedAt;
+        this.retiresAt = retiresAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public Instant getActivatedAt() {
+        return activatedAt;
+    }
+
+    public void setActivatedAt(Instant activatedAt) {
+        this.activatedAt = activatedAt;
+    }
+
+    public Instant getRetiresAt() {
+        return retiresAt;
+    }
+
+    public void setRetiresAt(Instant retiresAt) {
+        this.retiresAt = retiresAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -29,6 +29,10 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped to revoke every token issued so far; see JwtTokenCodec.EPOCH_CLAIM
+    @Column(name = "token_epoch", nullable = false)
+    private int tokenEpoch;
+
     public User() {
     }
 
@@ -69,6 +73,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public int getTokenEpoch() {
+        return tokenEpoch;
+    }
+
+    public void setTokenEpoch(int tokenEpoch) {
+        this.tokenEpoch = tokenEpoch;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
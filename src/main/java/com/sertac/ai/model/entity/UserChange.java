@@ -0,0 +1,51 @@
+package com.sertac.ai.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One change to a user row, written in the same transaction as the change. Every node polls
+ * these to evict the user from its {@code UserCache}.
+ */
+@Entity
+@Table(name = "user_changes", indexes = {
+    @Index(name = "idx_user_changes_changed_at", columnList = "changed_at")
+})
+public class UserChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "email", nullable = false, length = 320)
+    private String email;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public UserChange() {
+    }
+
+    public UserChange(String email, Instant changedAt) {
+        this.email = email;
+        this.changedAt = changedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
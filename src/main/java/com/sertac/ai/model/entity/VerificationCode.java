@@ -11,9 +11,19 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
+// At most one row per (canonical) email, reissued in place by VerificationCodeRepository
 @Entity
+@Table(name = "verification_code", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_verification_code_email", columnNames = "email")
+}, indexes = {
+    @Index(name = "idx_verification_code_status_expiration", columnList = "status, expiration_time"),
+    @Index(name = "idx_verification_code_status_updated", columnList = "status, updated_at")
+})
 public class VerificationCode {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,51 @@
+package com.sertac.ai.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Failed verification attempts for one key, shared by every node. Rows are only written through
+ * the atomic statements in {@code VerificationLockoutRepository}.
+ */
+@Entity
+@Table(name = "verification_lockouts", indexes = {
+    @Index(name = "idx_verification_lockouts_last_failure_at", columnList = "last_failure_at")
+})
+public class VerificationLockout {
+    @Id
+    @Column(name = "lockout_key", nullable = false, length = 320)
+    private String lockoutKey;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "last_failure_at", nullable = false)
+    private Instant lastFailureAt;
+
+    public VerificationLockout() {
+    }
+
+    public String getLockoutKey() {
+        return lockoutKey;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public Instant getLastFailureAt() {
+        return lastFailureAt;
+    }
+}
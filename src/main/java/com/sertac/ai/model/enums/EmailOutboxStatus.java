@@ -0,0 +1,7 @@
+package com.sertac.ai.model.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -5,5 +5,6 @@ public enum RefreshTokenStatus {
     EXPIRED,
     REVOKED,
     INACTIVE, 
-    BLACKLISTED
+    BLACKLISTED,
+    ROTATED
 }
\ No newline at end of file
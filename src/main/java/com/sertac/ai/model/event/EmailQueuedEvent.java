@@ -0,0 +1,18 @@
+package com.sertac.ai.model.event;
+
+/**
+ * Published when a message is written to the email outbox, so the dispatcher can send it as soon
+ * as the enclosing transaction commits instead of waiting for its next poll.
+ */
+public class EmailQueuedEvent {
+
+    private final Long outboxId;
+
+    public EmailQueuedEvent(Long outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    public Long getOutboxId() {
+        return outboxId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sertac.ai.model.event;
+
+/**
+ * Published after a user's token epoch has been bumped, i.e. every token issued to {@code email}
+ * so far is no longer accepted.
+ */
+public class UserTokensRevokedEvent {
+
+    private final String email;
+
+    public UserTokensRevokedEvent(String email) {
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,12 @@
+package com.sertac.ai.model.exception;
+
+/**
+ * A request the client got wrong, answered with 400 and this message. Only throw it for input
+ * that came from the caller; other invalid arguments are programming errors.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sertac.ai.model.exception;
+
+/**
+ * The caller is authenticated but not allowed to do this, answered with 403 and this message.
+ */
+public class ForbiddenException extends RuntimeException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sertac.ai.model.exception;
+
+/**
+ * The resource the request names does not exist, answered with 404 and this message.
+ */
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
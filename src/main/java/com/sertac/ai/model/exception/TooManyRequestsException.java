@@ -1,11 +1,30 @@
 package com.sertac.ai.model.exception;
+
+import java.time.Duration;
+
 public class TooManyRequestsException extends RuntimeException {
 
+    private final Duration retryAfter;
+
     public TooManyRequestsException(String message) {
         super(message);
+        this.retryAfter = null;
     }
 
     public TooManyRequestsException(String message, Throwable cause) {
         super(message, cause);
+        this.retryAfter = null;
+    }
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the client should wait before retrying, or {@code null} if unknown.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
     }
 }
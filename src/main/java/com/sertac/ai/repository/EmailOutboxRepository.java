@@ -0,0 +1,61 @@
+package com.sertac.ai.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.model.enums.EmailOutboxStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Locks up to a page of due messages. A lock timeout of -2 makes Hibernate emit
+     * {@code FOR UPDATE SKIP LOCKED}, so concurrent dispatchers claim disjoint rows without waiting.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from EmailOutbox e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutboxStatus status, @Param("now") Instant now, Pageable page);
+
+    /**
+     * Marks a message sent and clears its body, which may hold a verification code that is of no
+     * use once delivered. {@code nextAttemptAt} is set to the send time so the retention purge can
+     * use the status index.
+     */
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :status, e.sentAt = :sentAt, e.nextAttemptAt = :sentAt, " +
+           "e.lastError = null, e.body = '' where e.id = :id")
+    int markSent(@Param("id") Long id, @Param("status") EmailOutboxStatus status, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError where e.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") EmailOutboxStatus status,
+                          @Param("nextAttemptAt") Instant nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    /**
+     * Deletes at most {@code limit} sent or failed messages whose last attempt was before
+     * {@code before}, in its own short transaction.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "DELETE FROM email_outbox WHERE status IN ('SENT', 'FAILED') AND next_attempt_at < :before LIMIT :limit",
+           nativeQuery = true)
+    int deleteFinishedBatch(@Param("before") Instant before, @Param("limit") int limit);
+}
@@ -1,17 +1,98 @@
 package com.sertac.ai.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import com.sertac.ai.model.dto.AdminSessionSummary;
 import com.sertac.ai.model.entity.RefreshToken;
 import com.sertac.ai.model.enums.RefreshTokenStatus;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
     Optional<RefreshToken> findByEmail(String email);
-    List<RefreshToken> findByEmailAndStatus(String email, RefreshTokenStatus active);
 
+    /**
+     * Moves an unexpired token from {@code expected} to {@code next} only if it still has the
+     * expected status and hash. Returns the number of rows changed, so exactly one of several
+     * concurrent callers sees 1.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.status = :next, t.revokedAt = :now " +
+           "where t.tokenId = :tokenId and t.tokenHash = :tokenHash and t.status = :expected and t.expiryDate > :now")
+    int compareAndSetStatus(@Param("tokenId") String tokenId,
+                            @Param("tokenHash") String tokenHash,
+                            @Param("expected") RefreshTokenStatus expected,
+                            @Param("next") RefreshTokenStatus next,
+                            @Param("now") Date now);
+
+    /**
+     * Ids of the user's tokens that still have {@code status} but were issued before the user's
+     * current token epoch, i.e. revoked by a revoke-all.
+     */
+    @Query("select t.tokenId from RefreshToken t where t.email = :email and t.status = :status " +
+           "and t.epoch < (select u.tokenEpoch from User u where u.email = :email)")
+    List<String> findStaleTokenIds(@Param("email") String email, @Param("status") RefreshTokenStatus status);
+
+    @Modifying
+    @Query("update RefreshToken t set t.status = :next, t.revokedAt = :now where t.tokenId in :tokenIds and t.status = :expected")
+    int updateStatusByTokenIds(@Param("tokenIds") Collection<String> tokenIds,
+                               @Param("expected") RefreshTokenStatus expected,
+                               @Param("next") RefreshTokenStatus next,
+                               @Param("now") Date now);
+
+    /**
+     * Streams the ids of unexpired tokens that are no longer {@code ACTIVE}. Must be consumed inside
+     * a transaction; the fetch size makes MySQL Connector/J stream rows instead of buffering them.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select t.tokenId from RefreshToken t where t.status <> :active and t.expiryDate > :now")
+    Stream<String> streamRevokedTokenIds(@Param("active") RefreshTokenStatus active, @Param("now") Date now);
+
+    /**
+     * Deletes at most {@code limit} expired rows in its own short transaction. MySQL's
+     * {@code DELETE ... LIMIT} keeps each batch's locks and undo log bounded.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "DELETE FROM refresh_tokens WHERE expiry_date < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Date now, @Param("limit") int limit);
+
+    /**
+     * Deletes at most {@code limit} rows that were revoked before {@code revokedBefore}.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "DELETE FROM refresh_tokens WHERE revoked_at < :revokedBefore LIMIT :limit", nativeQuery = true)
+    int deleteRevokedBatch(@Param("revokedBefore") Date revokedBefore, @Param("limit") int limit);
+
+    /**
+     * Seeks past {@code afterTokenId} within the user's active tokens. InnoDB secondary indexes end
+     * with the primary key, so {@code idx_refresh_tokens_email_status} already orders them by
+     * {@code token_id}. Must be consumed in a transaction.
+     */
+    @Query("select new com.sertac.ai.model.dto.AdminSessionSummary(t.tokenId, t.epoch, t.expiryDate) " +
+           "from RefreshToken t where t.email = :email and t.status = :active and t.tokenId > :afterTokenId " +
+           "and t.epoch >= :epoch and t.expiryDate > :now order by t.tokenId")
+    Stream<AdminSessionSummary> streamActivePageAfter(@Param("email") String email,
+                                                      @Param("active") RefreshTokenStatus active,
+                                                      @Param("epoch") int epoch,
+                                                      @Param("afterTokenId") String afterTokenId,
+                                                      @Param("now") Date now,
+                                                      Limit limit);
 }
@@ -0,0 +1,22 @@
+package com.sertac.ai.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.model.entity.SigningKey;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByExpiresAtAfter(Instant now);
+
+    // Keys are created lazily while issuing tokens; they must be committed even if the
+    // surrounding request transaction rolls back, or other nodes could not verify them.
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    <S extends SigningKey> S save(S signingKey);
+}
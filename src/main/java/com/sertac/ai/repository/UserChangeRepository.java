@@ -0,0 +1,30 @@
+package com.sertac.ai.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.model.entity.UserChange;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    @Query("select distinct c.email from UserChange c where c.changedAt >= :since")
+    List<String> findEmailsChangedSince(@Param("since") Instant since);
+
+    /**
+     * Deletes at most {@code limit} changes recorded before {@code before}, in its own short
+     * transaction.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "DELETE FROM user_changes WHERE changed_at < :before LIMIT :limit", nativeQuery = true)
+    int deleteBatch(@Param("before") Instant before, @Param("limit") int limit);
+}
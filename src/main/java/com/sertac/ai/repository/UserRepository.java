@@ -1,11 +1,55 @@
 package com.sertac.ai.repository;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.sertac.ai.model.dto.AdminUserSummary;
 import com.sertac.ai.model.entity.User;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
-}
 
+    @Query("select u.tokenEpoch from User u where u.email = :email")
+    Integer findTokenEpochByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("update User u set u.tokenEpoch = u.tokenEpoch + 1, u.updatedAt = CURRENT_TIMESTAMP where u.email = :email")
+    int incrementTokenEpoch(@Param("email") String email);
+
+    /**
+     * Creates the user unless one with {@code email} already exists, in one statement. Concurrent
+     * calls for the same email serialize on the unique key instead of failing on it.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO users (email, created_at, token_epoch) VALUES (:email, :now, 0) " +
+                   "ON DUPLICATE KEY UPDATE id = id",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("email") String email, @Param("now") LocalDateTime now);
+
+    /**
+     * Reads the user with a locking read, which sees rows committed after the transaction's
+     * snapshot was taken, such as one created by a concurrent {@link #insertIfAbsent}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select u from User u where u.email = :email")
+    User findByEmailForShare(@Param("email") String email);
+
+    /**
+     * Seeks past {@code afterId} on the primary key, so every page costs the same however deep it
+     * is. Must be consumed in a transaction.
+     */
+    @Query("select new com.sertac.ai.model.dto.AdminUserSummary(u.id, u.email, u.createdAt, u.tokenEpoch) " +
+           "from User u where u.id > :afterId order by u.id")
+    Stream<AdminUserSummary> streamPageAfter(@Param("afterId") long afterId, Limit limit);
+}
@@ -5,7 +5,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import com.sertac.ai.model.entity.VerificationCode;
 import com.sertac.ai.model.enums.VerificationCodeStatus;
 
@@ -23,8 +28,80 @@ public interface VerificationCodeRepository extends JpaRepository<VerificationCo
 
     List<VerificationCode> findAllByEmailAndStatus(String email, VerificationCodeStatus status);
 
-    List<VerificationCode> findAllByExpirationTimeBeforeAndStatus(LocalDateTime expirationTime,
-            VerificationCodeStatus active);
-
     boolean existsByEmailAndCreatedAtAfterAndStatus(String email, LocalDateTime createdAt, VerificationCodeStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Replaces the email's code in place unless its current code is still active and was issued
+     * after {@code cooldownBefore}. Returns 1 if the code was replaced. The WHERE clause decides,
+     * so the count is the same whether or not the driver reports found rows.
+     */
+    @Modifying
+    @Query("update VerificationCode v set v.code = :code, v.status = :active, v.createdAt = :now, v.updatedAt = :now, " +
+           "v.expirationTime = :expiresAt " +
+           "where v.email = :email and (v.status <> :active or v.createdAt <= :cooldownBefore)")
+    int reissue(@Param("email") String email,
+                @Param("code") String code,
+                @Param("active") VerificationCodeStatus active,
+                @Param("now") LocalDateTime now,
+                @Param("expiresAt") LocalDateTime expiresAt,
+                @Param("cooldownBefore") LocalDateTime cooldownBefore);
+
+    /**
+     * Inserts the first code for an email. Returns 0 if a row already exists, i.e. a concurrent
+     * request issued one first.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO verification_code (email, code, status, created_at, updated_at, expiration_time) " +
+                   "VALUES (:email, :code, 'ACTIVE', :now, :now, :expiresAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("email") String email,
+                       @Param("code") String code,
+                       @Param("now") LocalDateTime now,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Marks at most {@code limit} active codes past their expiration time as {@code EXPIRED}, in
+     * its own short transaction. {@code UPDATE ... LIMIT} keeps each batch's locks bounded.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE verification_code SET status = 'EXPIRED', updated_at = :now " +
+                   "WHERE status = 'ACTIVE' AND expiration_time < :now LIMIT :limit",
+           nativeQuery = true)
+    int expireBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Deletes at most {@code limit} used, replaced or expired codes last changed before
+     * {@code updatedBefore}.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "DELETE FROM verification_code WHERE status IN ('USED', 'INACTIVE', 'EXPIRED') " +
+                   "AND updated_at < :updatedBefore LIMIT :limit",
+           nativeQuery = true)
+    int deleteRetiredBatch(@Param("updatedBefore") LocalDateTime updatedBefore, @Param("limit") int limit);
+
+    /**
+     * Records an issued code unconditionally, replacing the email's row if it has one. Used by the
+     * write-behind audit trail, where the cooldown has already been enforced in memory.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO verification_code (email, code, status, created_at, updated_at, expiration_time) " +
+                   "VALUES (:email, :code, 'ACTIVE', :now, :now, :expiresAt) " +
+                   "ON DUPLICATE KEY UPDATE code = VALUES(code), status = VALUES(status), created_at = VALUES(created_at), " +
+                   "updated_at = VALUES(updated_at), expiration_time = VALUES(expiration_time)",
+           nativeQuery = true)
+    void recordIssued(@Param("email") String email,
+                      @Param("code") String code,
+                      @Param("now") LocalDateTime now,
+                      @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update VerificationCode v set v.status = :used, v.updatedAt = :now " +
+           "where v.email = :email and v.code = :code and v.status = :active")
+    int markUsed(@Param("email") String email,
+                 @Param("code") String code,
+                 @Param("active") VerificationCodeStatus active,
+                 @Param("used") VerificationCodeStatus used,
+                 @Param("now") LocalDateTime now);
+}
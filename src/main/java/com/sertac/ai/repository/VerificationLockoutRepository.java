@@ -0,0 +1,53 @@
+package com.sertac.ai.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sertac.ai.model.entity.VerificationLockout;
+
+@Repository
+public interface VerificationLockoutRepository extends JpaRepository<VerificationLockout, String> {
+
+    boolean existsByLockoutKeyAndLockedUntilAfter(String lockoutKey, Instant now);
+
+    /**
+     * Counts one failure in a single upsert, starting over if the key's lockout has expired. The
+     * row stays locked until the surrounding transaction ends, which serializes concurrent
+     * failures for the same key across nodes. Each assignment only reads its own column's old
+     * value, because MySQL evaluates them left to right against the updated row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO verification_lockouts (lockout_key, attempts, locked_until, last_failure_at) " +
+                   "VALUES (:key, 1, NULL, :now) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "attempts = CASE WHEN locked_until <= :now THEN 1 ELSE attempts + 1 END, " +
+                   "locked_until = CASE WHEN locked_until <= :now THEN NULL ELSE locked_until END, " +
+                   "last_failure_at = :now",
+           nativeQuery = true)
+    int incrementAttempts(@Param("key") String key, @Param("now") Instant now);
+
+    /**
+     * Locks {@code key} if it has reached {@code maxAttempts} and is not locked yet. Returns 1 only
+     * for the failure that crossed the limit.
+     */
+    @Modifying
+    @Query("update VerificationLockout l set l.lockedUntil = :lockedUntil " +
+           "where l.lockoutKey = :key and l.attempts >= :maxAttempts and l.lockedUntil is null")
+    int lockIfExceeded(@Param("key") String key,
+                       @Param("maxAttempts") int maxAttempts,
+                       @Param("lockedUntil") Instant lockedUntil);
+
+    @Modifying
+    @Query("delete from VerificationLockout l where l.lockoutKey = :key")
+    int deleteByKey(@Param("key") String key);
+
+    @Modifying
+    @Query("delete from VerificationLockout l where l.lockedUntil <= :now " +
+           "or (l.lockedUntil is null and l.lastFailureAt < :idleBefore)")
+    int deleteExpired(@Param("now") Instant now, @Param("idleBefore") Instant idleBefore);
+}
@@ -0,0 +1,49 @@
+package com.sertac.ai.security;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sertac.ai.email.EmailUtils;
+import com.sertac.ai.model.exception.AuthenticationException;
+import com.sertac.ai.model.exception.ForbiddenException;
+
+/**
+ * Decides which verified users may call the {@code /api/admin} endpoints: those whose email is
+ * listed in {@code auth.admin.emails}. With the list empty, nobody is an admin. Listed emails are
+ * canonicalized with the same rules as the controllers, so they compare directly with token
+ * subjects; an invalid entry fails startup rather than silently granting nobody.
+ */
+@Component
+public class AdminAuthorizer {
+
+    private final Set<String> admins;
+
+    public AdminAuthorizer(@Value("${auth.admin.emails:}") List<String> emails,
+                           @Value("${auth.email.provider-rules:false}") boolean emailProviderRules) {
+        this.admins = emails.stream()
+                .filter(email -> !email.isBlank())
+                .map(email -> canonicalAdmin(email, emailProviderRules))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public void requireAdmin(TokenPrincipal principal) {
+        if (principal == null || principal.getSubject() == null) {
+            throw new AuthenticationException("Access token is missing or empty");
+        }
+        if (!admins.contains(principal.getSubject())) {
+            throw new ForbiddenException("Admin access required");
+        }
+    }
+
+    private static String canonicalAdmin(String email, boolean emailProviderRules) {
+        String canonical = EmailUtils.canonicalize(email, emailProviderRules);
+        if (canonical == null) {
+            throw new IllegalArgumentException("Invalid email in auth.admin.emails: " + email.trim());
+        }
+        return canonical;
+    }
+}
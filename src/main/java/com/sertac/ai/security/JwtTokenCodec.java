@@ -0,0 +1,197 @@
+package com.sertac.ai.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Signs and verifies the compact JWS tokens issued by this service.
+ * <p>
+ * Access tokens are signed with ES256 keys from the {@link SigningKeyRing} and carry a {@code kid}
+ * header, so other services can verify them against the published JWKS. Refresh tokens are only
+ * ever read by this service and stay HMAC-signed with {@code auth.secret-key}.
+ * <p>
+ * Keys, encoded JOSE headers and parsers are built once; each thread keeps its own {@link Mac} and
+ * {@link Signature}, so issuing or verifying a token does no key derivation or builder allocation.
+ * Instances are thread-safe.
+ */
+@Component
+public class JwtTokenCodec {
+
+    /**
+     * Private claim holding the user's token epoch at issue time. Tokens whose epoch is behind the
+     * user's current one have been revoked; tokens without the claim belong to epoch 0.
+     */
+    public static final String EPOCH_CLAIM = "epc";
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    // JOSE expects the raw r||s signature rather than the DER encoding of plain SHA256withECDSA
+    private static final String ES256_JCA_NAME = "SHA256withECDSAinP1363Format";
+
+    private final SigningKeyRing signingKeyRing;
+    private final SignatureAlgorithm refreshAlgorithm;
+    private final String refreshHeaderPrefix;
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<Signature> signatures;
+    private final JwtParser accessTokenParser;
+    private final JwtParser refreshTokenParser;
+
+    public JwtTokenCodec(@Value("${auth.secret-key}") String secretKey, SigningKeyRing signingKeyRing) {
+        this.signingKeyRing = signingKeyRing;
+
+        SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.refreshAlgorithm = SignatureAlgorithm.forSigningKey(key);
+        String header = "{\"alg\":\"" + refreshAlgorithm.getValue() + "\"}";
+        this.refreshHeaderPrefix = BASE64_URL.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + '.';
+        Mac prototype = newMac(key);
+        this.macs = ThreadLocal.withInitial(() -> cloneMac(prototype));
+        this.signatures = ThreadLocal.withInitial(JwtTokenCodec::newSignature);
+
+        this.accessTokenParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver(signingKeyRing))
+                .build();
+        this.refreshTokenParser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    public String encodeAccessToken(String subject, int epoch, Date issuedAt, Date expiration) {
+        SigningKeyRing.ActiveKey signingKey = signingKeyRing.signingKey();
+        String signingInput = signingKey.getHeaderPrefix() + encodePayload(subject, null, epoch, issuedAt, expiration);
+        try {
+            Signature signature = signatures.get();
+            signature.initSign(signingKey.getPrivateKey());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + BASE64_URL.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign access token", e);
+        }
+    }
+
+    public String encodeRefreshToken(String subject, String tokenId, int epoch, Date issuedAt, Date expiration) {
+        String signingInput = refreshHeaderPrefix + encodePayload(subject, tokenId, epoch, issuedAt, expiration);
+        byte[] signature = macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + BASE64_URL.encodeToString(signature);
+    }
+
+    /**
+     * Verifies the signature and expiry of an access token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with, expired or not
+     *         signed by a key of the ring
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public Claims decodeAccessToken(String token) {
+        return accessTokenParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifies the signature and expiry of a refresh token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public Claims decodeRefreshToken(String token) {
+        return refreshTokenParser.parseClaimsJws(token).getBody();
+    }
+
+    private Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance(refreshAlgorithm.getJcaName());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + refreshAlgorithm.getJcaName(), e);
+        }
+    }
+
+    private static Mac cloneMac(Mac prototype) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Mac provider does not support cloning", e);
+        }
+    }
+
+    private static Signature newSignature() {
+        try {
+            return Signature.getInstance(ES256_JCA_NAME);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ES256_JCA_NAME, e);
+        }
+    }
+
+    /**
+     * Returns the {@link #EPOCH_CLAIM} of verified claims, or 0 for tokens issued without one.
+     */
+    public static int epochOf(Claims claims) {
+        return claims.get(EPOCH_CLAIM) instanceof Number epoch ? epoch.intValue() : 0;
+    }
+
+    private static String encodePayload(String subject, String tokenId, int epoch, Date issuedAt, Date expiration) {
+        StringBuilder payload = new StringBuilder(128).append('{');
+        if (tokenId != null) {
+            appendString(payload, Claims.ID, tokenId).append(',');
+        }
+        appendString(payload, Claims.SUBJECT, subject).append(',');
+        payload.append('"').append(EPOCH_CLAIM).append("\":").append(epoch).append(',');
+        appendSeconds(payload, Claims.ISSUED_AT, issuedAt).append(',');
+        appendSeconds(payload, Claims.EXPIRATION, expiration).append('}');
+        return BASE64_URL.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StringBuilder appendSeconds(StringBuilder json, String name, Date date) {
+        return json.append('"').append(name).append("\":").append(date.getTime() / 1000);
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+
+    private static final class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        private final SigningKeyRing signingKeyRing;
+
+        KeyRingResolver(SigningKeyRing signingKeyRing) {
+            this.signingKeyRing = signingKeyRing;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (!SigningKeyRing.ALGORITHM.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Access tokens must be signed with " + SigningKeyRing.ALGORITHM.getValue());
+            }
+            return signingKeyRing.verificationKey(header.getKeyId());
+        }
+    }
+}
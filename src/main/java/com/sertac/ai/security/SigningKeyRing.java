@@ -0,0 +1,297 @@
+package com.sertac.ai.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sertac.ai.model.dto.JwkResponse;
+import com.sertac.ai.model.dto.JwksResponse;
+import com.sertac.ai.model.entity.SigningKey;
+import com.sertac.ai.repository.SigningKeyRepository;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Rotating ring of ES256 keys used to sign access tokens.
+ * <p>
+ * Keys are shared between nodes through the {@code signing_keys} table. Each key is published in
+ * the JWKS as soon as it exists, signs tokens for {@code rotation-period}, and is still accepted
+ * for verification for {@code retention} after it retires, which must exceed the access token
+ * lifetime. A successor is created lazily once the active key is within {@code publish-ahead} of
+ * retiring, so downstream JWKS caches normally learn it before it is used.
+ */
+@Component
+public class SigningKeyRing {
+
+    static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.ES256;
+    private static final String CURVE = "P-256";
+    private static final int COORDINATE_LENGTH = 32;
+    private static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(10);
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final Duration rotationPeriod;
+    private final Duration publishAhead;
+    private final Duration retention;
+    private final Duration reloadInterval;
+    private final Clock clock;
+    private final Object rotationLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public SigningKeyRing(SigningKeyRepository signingKeyRepository,
+                          @Value("${auth.signing-key.rotation-period:P30D}") Duration rotationPeriod,
+                          @Value("${auth.signing-key.publish-ahead:PT2H}") Duration publishAhead,
+                          @Value("${auth.signing-key.retention:P2D}") Duration retention,
+                          @Value("${auth.signing-key.reload-interval:PT5M}") Duration reloadInterval) {
+        this(signingKeyRepository, rotationPeriod, publishAhead, retention, reloadInterval, Clock.systemUTC());
+    }
+
+    SigningKeyRing(SigningKeyRepository signingKeyRepository, Duration rotationPeriod, Duration publishAhead,
+                   Duration retention, Duration reloadInterval, Clock clock) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.rotationPeriod = rotationPeriod;
+        this.publishAhead = publishAhead;
+        this.retention = retention;
+        this.reloadInterval = reloadInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the key new access tokens must be signed with, creating a successor first if the
+     * current one is about to retire.
+     */
+    public ActiveKey signingKey() {
+        Instant now = clock.instant();
+        Snapshot current = currentSnapshot(now);
+        if (current.needsSuccessor(now, publishAhead)) {
+            current = rotate(now);
+        }
+        return current.signingKey(now);
+    }
+
+    /**
+     * Returns the public key for {@code kid}. Unknown ids trigger a throttled reload so keys created
+     * by other nodes are picked up without waiting for the regular reload interval.
+     *
+     * @throws SignatureException if no unexpired key with that id exists
+     */
+    public PublicKey verificationKey(String kid) {
+        Instant now = clock.instant();
+        Snapshot current = currentSnapshot(now);
+        VerificationKey key = kid == null ? null : current.verificationKeys.get(kid);
+        if (key == null && kid != null && current.loadedAt.plus(UNKNOWN_KID_RELOAD_INTERVAL).isBefore(now)) {
+            current = reload(now);
+            key = current.verificationKeys.get(kid);
+        }
+        if (key == null || !key.expiresAt.isAfter(now)) {
+            throw new SignatureException("Unknown or expired signing key: " + kid);
+        }
+        return key.publicKey;
+    }
+
+    public JwksResponse jwks() {
+        return currentSnapshot(clock.instant()).jwks;
+    }
+
+    private Snapshot currentSnapshot(Instant now) {
+        Snapshot current = snapshot;
+        if (current == null || current.loadedAt.plus(reloadInterval).isBefore(now)) {
+            current = reload(now);
+        }
+        return current;
+    }
+
+    private Snapshot reload(Instant now) {
+        Snapshot loaded = Snapshot.of(signingKeyRepository.findByExpiresAtAfter(now), now);
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private Snapshot rotate(Instant now) {
+        synchronized (rotationLock) {
+            // Another thread, or another node, may have created the successor already
+            Snapshot current = reload(now);
+            if (!current.needsSuccessor(now, publishAhead)) {
+                return current;
+            }
+
+            Instant activatedAt = current.coveredUntil(now);
+            Instant retiresAt = activatedAt.plus(rotationPeriod);
+            SigningKey created = signingKeyRepository.save(generateKey(activatedAt, retiresAt, retiresAt.plus(retention)));
+
+            List<SigningKey> keys = new ArrayList<>(current.keys);
+            keys.add(created);
+            Snapshot rotated = Snapshot.of(keys, now);
+            snapshot = rotated;
+            return rotated;
+        }
+    }
+
+    private static SigningKey generateKey(Instant activatedAt, Instant retiresAt, Instant expiresAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            Base64.Encoder encoder = Base64.getEncoder();
+            return new SigningKey(
+                    UUID.randomUUID().toString(),
+                    ALGORITHM.getValue(),
+                    encoder.encodeToString(keyPair.getPublic().getEncoded()),
+                    encoder.encodeToString(keyPair.getPrivate().getEncoded()),
+                    activatedAt,
+                    retiresAt,
+                    expiresAt);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate " + ALGORITHM.getValue() + " signing key", e);
+        }
+    }
+
+    /**
+     * Private key and pre-encoded JOSE header for the key currently used for signing.
+     */
+    public static final class ActiveKey {
+        private final String kid;
+        private final PrivateKey privateKey;
+        private final String headerPrefix;
+
+        ActiveKey(String kid, PrivateKey privateKey) {
+            this.kid = kid;
+            this.privateKey = privateKey;
+            String header = "{\"alg\":\"" + ALGORITHM.getValue() + "\",\"kid\":\"" + kid + "\"}";
+            this.headerPrefix = BASE64_URL.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + '.';
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        /**
+         * Base64url-encoded header followed by the '.' separator.
+         */
+        public String getHeaderPrefix() {
+            return headerPrefix;
+        }
+    }
+
+    private record VerificationKey(PublicKey publicKey, Instant expiresAt) {
+    }
+
+    private static final class Snapshot {
+        private final List<SigningKey> keys;
+        private final Map<String, ActiveKey> activeKeys;
+        private final Map<String, VerificationKey> verificationKeys;
+        private final JwksResponse jwks;
+        private final Instant loadedAt;
+
+        private Snapshot(List<SigningKey> keys, Map<String, ActiveKey> activeKeys,
+                         Map<String, VerificationKey> verificationKeys, JwksResponse jwks, Instant loadedAt) {
+            this.keys = keys;
+            this.activeKeys = activeKeys;
+            this.verificationKeys = verificationKeys;
+            this.jwks = jwks;
+            this.loadedAt = loadedAt;
+        }
+
+        static Snapshot of(List<SigningKey> keys, Instant loadedAt) {
+            List<SigningKey> sorted = new ArrayList<>(keys);
+            sorted.sort(Comparator.comparing(SigningKey::getActivatedAt));
+            Map<String, ActiveKey> activeKeys = new HashMap<>();
+            Map<String, VerificationKey> verificationKeys = new HashMap<>();
+            List<JwkResponse> jwks = new ArrayList<>();
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance("EC");
+                Base64.Decoder decoder = Base64.getDecoder();
+                for (SigningKey key : sorted) {
+                    PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decoder.decode(key.getPublicKey())));
+                    verificationKeys.put(key.getKid(), new VerificationKey(publicKey, key.getExpiresAt()));
+                    jwks.add(toJwk(key.getKid(), (ECPublicKey) publicKey));
+                    if (key.getRetiresAt().isAfter(loadedAt)) {
+                        PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decoder.decode(key.getPrivateKey())));
+                        activeKeys.put(key.getKid(), new ActiveKey(key.getKid(), privateKey));
+                    }
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to decode signing keys", e);
+            }
+            return new Snapshot(List.copyOf(sorted), activeKeys, verificationKeys, new JwksResponse(List.copyOf(jwks)), loadedAt);
+        }
+
+        /**
+         * The most recently activated key that is active at {@code now}.
+         */
+        ActiveKey signingKey(Instant now) {
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                SigningKey key = keys.get(i);
+                if (!key.getActivatedAt().isAfter(now) && key.getRetiresAt().isAfter(now)) {
+                    ActiveKey active = activeKeys.get(key.getKid());
+                    if (active != null) {
+                        return active;
+                    }
+                }
+            }
+            throw new IllegalStateException("No active signing key");
+        }
+
+        boolean needsSuccessor(Instant now, Duration publishAhead) {
+            return coveredUntil(now).isBefore(now.plus(publishAhead));
+        }
+
+        /**
+         * End of the contiguous signing coverage starting at {@code now}; equals {@code now} when
+         * no key is active.
+         */
+        Instant coveredUntil(Instant now) {
+            Instant covered = now;
+            for (SigningKey key : keys) {
+                if (!key.getActivatedAt().isAfter(covered) && key.getRetiresAt().isAfter(covered)) {
+                    covered = key.getRetiresAt();
+                }
+            }
+            return covered;
+        }
+
+        private static JwkResponse toJwk(String kid, ECPublicKey publicKey) {
+            return new JwkResponse("EC", CURVE, kid, "sig", ALGORITHM.getValue(),
+                    encodeCoordinate(publicKey.getW().getAffineX()),
+                    encodeCoordinate(publicKey.getW().getAffineY()));
+        }
+
+        private static String encodeCoordinate(BigInteger coordinate) {
+            byte[] bytes = coordinate.toByteArray();
+            byte[] fixed = new byte[COORDINATE_LENGTH];
+            int length = Math.min(bytes.length, COORDINATE_LENGTH);
+            System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+            return BASE64_URL.encodeToString(fixed);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sertac.ai.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
+import com.sertac.ai.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived cache of each user's current token epoch, so access token verification can reject
+ * revoked tokens without a query per request. Revocations on this instance take effect as soon as
+ * they commit; other instances see them within {@code auth.token-epoch.cache-ttl}.
+ */
+@Component
+public class TokenEpochCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> cache;
+
+    @Autowired
+    public TokenEpochCache(UserRepository userRepository,
+                           @Value("${auth.token-epoch.maximum-size:100000}") long maximumSize,
+                           @Value("${auth.token-epoch.cache-ttl:PT30S}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this(userRepository, maximumSize, ttl, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenEpochs");
+    }
+
+    TokenEpochCache(UserRepository userRepository, long maximumSize, Duration ttl, Ticker ticker) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the current token epoch of {@code email}, or 0 if there is no such user.
+     */
+    public int current(String email) {
+        return cache.get(email, key -> {
+            Integer epoch = userRepository.findTokenEpochByEmail(key);
+            return epoch == null ? 0 : epoch;
+        });
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    // Evicting before the bump commits would let a concurrent reader cache the old epoch again
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTokensRevoked(UserTokensRevokedEvent event) {
+        invalidate(event.getEmail());
+    }
+}
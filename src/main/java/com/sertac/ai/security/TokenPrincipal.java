@@ -0,0 +1,67 @@
+package com.sertac.ai.security;
+
+import java.time.Instant;
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Immutable view of a verified token. Instances are only created from claims whose signature
+ * and expiry have already been checked by {@link JwtTokenCodec}.
+ */
+public final class TokenPrincipal {
+
+    private final String subject;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final String tokenId;
+    private final int epoch;
+
+    public TokenPrincipal(String subject, Instant issuedAt, Instant expiresAt, String tokenId) {
+        this(subject, issuedAt, expiresAt, tokenId, 0);
+    }
+
+    public TokenPrincipal(String subject, Instant issuedAt, Instant expiresAt, String tokenId, int epoch) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.epoch = epoch;
+    }
+
+    public static TokenPrincipal from(Claims claims) {
+        return new TokenPrincipal(
+                claims.getSubject(),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.getId(),
+                JwtTokenCodec.epochOf(claims));
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * The user's token epoch when this token was issued; see {@link JwtTokenCodec#EPOCH_CLAIM}.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+}
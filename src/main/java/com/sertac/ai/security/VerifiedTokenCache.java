@@ -0,0 +1,123 @@
+package com.sertac.ai.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size-bounded cache of verified access tokens, keyed by the SHA-256 digest of the compact token so
+ * raw tokens are never retained. An entry never outlives the token's {@code exp} claim, nor the
+ * configured maximum time-to-live. Failed verifications are never cached. Entries are not evicted on
+ * revocation: a cached principal carries its token epoch, which callers compare against
+ * {@link TokenEpochCache} on every hit.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<DigestKey, TokenPrincipal> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${auth.token-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${auth.token-cache.max-ttl:PT1H}") Duration maxTtl,
+                              MeterRegistry meterRegistry) {
+        this(maximumSize, maxTtl, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedAccessTokens");
+    }
+
+    VerifiedTokenCache(long maximumSize, Duration maxTtl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maxTtl.toNanos()))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached principal for {@code token}, or verifies it with {@code verifier} and caches
+     * the result. Exceptions thrown by the verifier propagate and leave the cache untouched.
+     */
+    public TokenPrincipal get(String token, Function<String, TokenPrincipal> verifier) {
+        DigestKey key = DigestKey.of(token);
+        TokenPrincipal principal = cache.getIfPresent(key);
+        if (principal == null) {
+            principal = verifier.apply(token);
+            cache.put(key, principal);
+        }
+        return principal;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private record DigestKey(long a, long b, long c, long d) {
+
+        static DigestKey of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new DigestKey(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<DigestKey, TokenPrincipal> {
+
+        private final long maxTtlNanos;
+
+        TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(DigestKey key, TokenPrincipal principal, long currentTime) {
+            Instant expiresAt = principal.getExpiresAt();
+            if (expiresAt == null) {
+                return 0;
+            }
+            long wallClockNanos = Duration.between(Instant.now(), expiresAt).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, wallClockNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(DigestKey key, TokenPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(DigestKey key, TokenPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
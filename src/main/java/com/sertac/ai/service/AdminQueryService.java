@@ -0,0 +1,110 @@
+package com.sertac.ai.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sertac.ai.model.dto.AdminSessionSummary;
+import com.sertac.ai.model.dto.AdminUserSummary;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.model.enums.RefreshTokenStatus;
+import com.sertac.ai.model.exception.NotFoundException;
+import com.sertac.ai.repository.RefreshTokenRepository;
+import com.sertac.ai.repository.UserRepository;
+
+/**
+ * Pages through users and their active sessions for the admin endpoints.
+ * <p>
+ * Pages use keyset pagination: each one seeks past the last key of the previous page on an index,
+ * instead of an {@code OFFSET} that reads and discards every earlier row. Rows are read as DTO
+ * projections and written to the response as they arrive, as
+ * {@code {"items":[...],"nextCursor":...}}. {@code nextCursor} is {@code null} once a page comes
+ * back short; a full last page is followed by an empty one.
+ */
+@Service
+public class AdminQueryService {
+
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public AdminQueryService(UserRepository userRepository,
+                             RefreshTokenRepository refreshTokenRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this(userRepository, refreshTokenRepository, transactionManager, objectMapper, Clock.systemUTC());
+    }
+
+    AdminQueryService(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository,
+                      PlatformTransactionManager transactionManager, ObjectMapper objectMapper, Clock clock) {
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public User findUser(long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+    }
+
+    public void writeUsers(long afterId, int limit, OutputStream output) throws IOException {
+        writePage(() -> userRepository.streamPageAfter(afterId, Limit.of(limit)), limit,
+                user -> PageCursor.encode(PageCursor.USERS, user.getId().toString()), output);
+    }
+
+    public void writeSessions(User user, String afterTokenId, int limit, OutputStream output) throws IOException {
+        Date now = Date.from(clock.instant());
+        writePage(() -> refreshTokenRepository.streamActivePageAfter(user.getEmail(), RefreshTokenStatus.ACTIVE,
+                        user.getTokenEpoch(), afterTokenId == null ? "" : afterTokenId, now, Limit.of(limit)),
+                limit, session -> PageCursor.encode(PageCursor.SESSIONS, session.getTokenId()), output);
+    }
+
+    private <T> void writePage(Supplier<Stream<T>> query, int limit, Function<T, String> cursor, OutputStream output)
+            throws IOException {
+        JsonGenerator json = objectMapper.createGenerator(output);
+        json.writeStartObject();
+        json.writeArrayFieldStart("items");
+        String nextCursor;
+        try {
+            nextCursor = transactionTemplate.execute(status -> {
+                int count = 0;
+                T last = null;
+                try (Stream<T> rows = query.get()) {
+                    for (T row : (Iterable<T>) rows::iterator) {
+                        json.writeObject(row);
+                        last = row;
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count == limit ? cursor.apply(last) : null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        json.writeEndArray();
+        json.writeStringField("nextCursor", nextCursor);
+        json.writeEndObject();
+        json.flush();
+    }
+}
@@ -1,10 +1,11 @@
 package com.sertac.ai.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sertac.ai.model.dto.VerifyCodeResponse;
@@ -14,21 +15,18 @@ import com.sertac.ai.model.dto.SendVerificationCodeRequest;
 import com.sertac.ai.model.dto.SendVerificationCodeResponse;
 import com.sertac.ai.model.dto.VerifyCodeRequest;
 import com.sertac.ai.model.entity.User;
-import com.sertac.ai.model.entity.VerificationCode;
-import com.sertac.ai.model.enums.RefreshTokenStatus;
-import com.sertac.ai.model.entity.RefreshToken;
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
 import com.sertac.ai.model.exception.AuthenticationException;
-import com.sertac.ai.model.exception.EmailSendingException;
 import com.sertac.ai.model.exception.TooManyRequestsException;
 import com.sertac.ai.model.exception.VerificationException;
+import com.sertac.ai.security.JwtTokenCodec;
+import com.sertac.ai.security.TokenEpochCache;
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.security.VerifiedTokenCache;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import java.security.Key;
 import java.util.Date;
-import java.util.List;
 import java.util.UUID;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -36,41 +34,52 @@ import java.nio.charset.StandardCharsets;
 @Service
 @Transactional
 public class AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     private final VerificationCodeService verificationCodeService;
-    private final JavaMailSender emailSender;
-    private final String secretKey;
+    private final EmailOutboxService emailOutboxService;
+    private final JwtTokenCodec tokenCodec;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserService userService;
     private final RefreshTokenService refreshTokenService;
+    private final TokenEpochCache tokenEpochCache;
+    private final RefreshGraceCache refreshGraceCache;
+    private final ApplicationEventPublisher eventPublisher;
     @Value("${app.domain}")
     private String appDomain;
 
     public AuthService(VerificationCodeService verificationCodeService, 
-                       JavaMailSender emailSender, 
-                       @Value("${auth.secret-key}") String secretKey,
+                       EmailOutboxService emailOutboxService,
+                       JwtTokenCodec tokenCodec,
+                       VerifiedTokenCache verifiedTokenCache,
                        UserService userService,
-                       RefreshTokenService refreshTokenService) {
+                       RefreshTokenService refreshTokenService,
+                       TokenEpochCache tokenEpochCache,
+                       RefreshGraceCache refreshGraceCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.verificationCodeService = verificationCodeService;
-        this.emailSender = emailSender;
-        this.secretKey = secretKey;
+        this.emailOutboxService = emailOutboxService;
+        this.tokenCodec = tokenCodec;
+        this.verifiedTokenCache = verifiedTokenCache;
         this.userService = userService;
         this.refreshTokenService = refreshTokenService;
+        this.tokenEpochCache = tokenEpochCache;
+        this.refreshGraceCache = refreshGraceCache;
+        this.eventPublisher = eventPublisher;
     }
     
     
+    /**
+     * Issues a code and queues the email. Callers apply the send throttle first, before this
+     * transaction opens.
+     */
     public SendVerificationCodeResponse sendVerificationCode(SendVerificationCodeRequest request) {
-        // Check for recent active verification codes, excluding USED ones
-        if (verificationCodeService.hasRecentActiveVerificationCode(request.getEmail())) {
+        // Generate and store the new code, replacing the previous one unless it is still too recent
+        String code = verificationCodeService.generateVerificationCode();
+        if (!verificationCodeService.issueVerificationCode(request.getEmail(), code)) {
             throw new TooManyRequestsException("Please wait before requesting a new code");
         }
         
-        // Deactivate any existing verification codes
-        verificationCodeService.deactivateVerificationCode(request.getEmail());
-        
-        // Generate and save new verification code
-        String code = verificationCodeService.generateVerificationCode();
-        VerificationCode verificationCode = new VerificationCode(request.getEmail(), code);
-        verificationCodeService.saveVerificationCode(verificationCode);
-        
         String encodedEmail = URLEncoder.encode(request.getEmail(), StandardCharsets.UTF_8);
         String loginUrl = "http://" + appDomain + "/verify?email=" + encodedEmail;
         String emailBody = String.format(
@@ -80,20 +89,20 @@ public class AuthService {
             code, loginUrl
         );
         
-        sendEmail(request.getEmail(), "Verification Code for " + appDomain, emailBody);
+        // Sent by the outbox dispatcher once this transaction commits
+        emailOutboxService.enqueue(request.getEmail(), "Verification Code for " + appDomain, emailBody);
         return new SendVerificationCodeResponse(true, "Verification code sent successfully");
     }
     
     public VerifyCodeResponse verifyCode(VerifyCodeRequest verifyCodeRequest) {
         if (verificationCodeService.verifyCode(verifyCodeRequest.getEmail(), verifyCodeRequest.getCode())) {
-            // Create a new user
-            User existingUser = userService.findByEmail(verifyCodeRequest.getEmail());
-            if (existingUser == null) {
-                userService.createUser(new User(verifyCodeRequest.getEmail()));
-            }
+            // Find the user, creating it on first login
+            User user = userService.findOrCreateUser(verifyCodeRequest.getEmail());
+            // The user may come from UserCache, so its epoch is not trusted for revocation
+            int epoch = tokenEpochCache.current(user.getEmail());
             
-            String accessToken = createJwtToken(verifyCodeRequest.getEmail());
-            String refreshToken = createRefreshToken(verifyCodeRequest.getEmail());
+            String accessToken = createJwtToken(user.getEmail(), epoch);
+            String refreshToken = createRefreshToken(user.getEmail(), epoch);
             
             return new VerifyCodeResponse(accessToken, refreshToken);
         } else {
@@ -101,98 +110,79 @@ public class AuthService {
         }
     }
     
-    private String createJwtToken(String email) {
+    private String createJwtToken(String email, int epoch) {
         long expirationTime = 1000 * 60 * 60 * 24; // 24 hours
-        Date expirationDate = new Date(System.currentTimeMillis() + expirationTime);
-        Key key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        Date issuedAt = new Date();
+        Date expirationDate = new Date(issuedAt.getTime() + expirationTime);
 
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(expirationDate)
-                .signWith(key)
-                .compact();
+        return tokenCodec.encodeAccessToken(email, epoch, issuedAt, expirationDate);
     }
     
-    private String createRefreshToken(String email) {
+    private String createRefreshToken(String email, int epoch) {
         String tokenId = UUID.randomUUID().toString();
         long expirationTime = 1000L * 60 * 60 * 24 * 30; // 30 days
-        Date expirationDate = new Date(System.currentTimeMillis() + expirationTime);
-        Key key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        Date issuedAt = new Date();
+        Date expirationDate = new Date(issuedAt.getTime() + expirationTime);
 
-        String token = Jwts.builder()
-                .setId(tokenId)
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(expirationDate)
-                .signWith(key)
-                .compact();
+        String token = tokenCodec.encodeRefreshToken(email, tokenId, epoch, issuedAt, expirationDate);
 
-        refreshTokenService.saveRefreshToken(tokenId, email, token, expirationDate);
+        refreshTokenService.saveRefreshToken(tokenId, email, epoch, token, expirationDate);
 
         return token;
     }
-    private void sendEmail(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            emailSender.send(message);
-        } catch (MailException e) {
-            // Log the error
-            throw new EmailSendingException("Failed to send verification email", e);
-        }
-    }
 
+    /**
+     * Exchanges a refresh token for a new token pair. The presented token is retired with a single
+     * conditional update, so when the same token is submitted concurrently exactly one request wins
+     * and every other one fails with "already used" instead of minting a second pair. Retries
+     * within the {@link RefreshGraceCache} window on this instance receive the pair that was
+     * already issued.
+     */
     public RefreshTokenResponse refreshToken(RefreshTokenRequest request) {
         String refreshTokenString = request.getRefreshToken();
-        RefreshToken refreshToken = validateAndGetRefreshToken(refreshTokenString);
-        String email = refreshToken.getEmail();
-        getUserOrThrow(email);
-
-        String newAccessToken = createJwtToken(email);
-        String newRefreshToken = createRefreshToken(email);
-
-        refreshTokenService.deactivateRefreshToken(refreshToken);
-        refreshTokenService.blacklistToken(refreshTokenString);
-
-        return new RefreshTokenResponse(newAccessToken, newRefreshToken);
+        // The signature is checked before touching the database, so forged or expired tokens
+        // never cost a query, and the jti it vouches for is used as the primary key
+        Claims claims = verifyRefreshToken(refreshTokenString);
+        return refreshGraceCache.getOrRotate(claims.getId(), () -> rotateRefreshToken(claims, refreshTokenString));
     }
 
-    private RefreshToken validateAndGetRefreshToken(String refreshTokenString) {
-        if (refreshTokenString == null || refreshTokenString.isEmpty()) {
-            throw new AuthenticationException("Refresh token is missing or empty");
+    private RefreshTokenResponse rotateRefreshToken(Claims claims, String refreshTokenString) {
+        // Replays of rotated or revoked tokens are turned away here, usually without a query
+        if (refreshTokenService.isTokenRevoked(claims.getId())) {
+            throw new AuthenticationException("Refresh token is invalid or has already been used");
+        }
+        User user = getUserOrThrow(claims.getSubject());
+        // Same source as access token checks, never the possibly stale cached user
+        int epoch = tokenEpochCache.current(user.getEmail());
+        if (JwtTokenCodec.epochOf(claims) < epoch) {
+            throw new AuthenticationException("Refresh token has been revoked");
         }
 
-        if (refreshTokenService.isTokenBlacklisted(refreshTokenString)) {
-            throw new AuthenticationException("Refresh token is blacklisted");
+        if (!refreshTokenService.rotateRefreshToken(claims.getId(), refreshTokenString)) {
+            throw new AuthenticationException("Refresh token is invalid or has already been used");
         }
 
-        RefreshToken refreshToken = refreshTokenService.findByToken(refreshTokenString)
-                .orElseThrow(() -> new AuthenticationException("Refresh token not found"));
+        String newAccessToken = createJwtToken(user.getEmail(), epoch);
+        String newRefreshToken = createRefreshToken(user.getEmail(), epoch);
 
-        if (!RefreshTokenStatus.ACTIVE.equals(refreshToken.getStatus())) {
-            throw new AuthenticationException("Refresh token is inactive");
-        }
+        return new RefreshTokenResponse(newAccessToken, newRefreshToken);
+    }
 
-        if (refreshToken.getExpiryDate().before(new Date())) {
-            refreshTokenService.deactivateRefreshToken(refreshToken);
-            throw new AuthenticationException("Refresh token has expired");
+    private Claims verifyRefreshToken(String refreshTokenString) {
+        if (refreshTokenString == null || refreshTokenString.isEmpty()) {
+            throw new AuthenticationException("Refresh token is missing or empty");
         }
 
+        Claims claims;
         try {
-            Key key = Keys.hmacShaKeyFor(secretKey.getBytes());
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(refreshTokenString);
-        } catch (JwtException e) {
-            refreshTokenService.deactivateRefreshToken(refreshToken);
+            claims = tokenCodec.decodeRefreshToken(refreshTokenString);
+        } catch (JwtException | IllegalArgumentException e) {
             throw new AuthenticationException("Invalid refresh token", e);
         }
-
-        return refreshToken;
+        if (claims.getId() == null || claims.getSubject() == null) {
+            throw new AuthenticationException("Invalid refresh token");
+        }
+        return claims;
     }
 
     private User getUserOrThrow(String email) {
@@ -204,68 +194,71 @@ public class AuthService {
     }
 
     public void revokeRefreshToken(String refreshToken) {
-        refreshTokenService.revokeRefreshToken(refreshToken);
-        refreshTokenService.blacklistToken(refreshToken);
+        String tokenId = verifyRefreshToken(refreshToken).getId();
+        refreshTokenService.revokeRefreshToken(tokenId);
+        refreshTokenService.blacklistToken(tokenId);
     }
 
+    /**
+     * Revokes every access and refresh token issued to {@code email} by bumping the user's token
+     * epoch, a single-row update however many sessions the user has. The per-token rows are
+     * retired asynchronously after commit.
+     */
     public void revokeAllUserRefreshTokens(String email) {
-        List<RefreshToken> userTokens = refreshTokenService.findActiveTokensByEmail(email);
-        for (RefreshToken token : userTokens) {
-            refreshTokenService.deactivateRefreshToken(token);
-            refreshTokenService.blacklistToken(token.getToken());
+        if (userService.incrementTokenEpoch(email)) {
+            eventPublisher.publishEvent(new UserTokensRevokedEvent(email));
         }
     }
 
 
-    public boolean validateAccessToken(String token) {
+    /**
+     * Parses and verifies {@code token} exactly once and returns the resulting principal.
+     * Accepts the raw JWT or an {@code Authorization} header value with the "Bearer " prefix.
+     * Tokens seen recently are answered from {@link VerifiedTokenCache} without re-verification;
+     * the user's token epoch is checked on every call so revoked tokens are rejected.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TokenPrincipal verifyAccessToken(String token) {
         if (token == null || token.trim().isEmpty()) {
-            System.err.println("JWT token is null or empty");
-            return false;
+            throw new AuthenticationException("Access token is missing or empty");
+        }
+
+        // Remove "Bearer " prefix if present
+        if (token.startsWith("Bearer ")) {
+            token = token.substring(7);
         }
 
+        // Remove any leading/trailing whitespace
+        token = token.trim();
+
+        TokenPrincipal principal;
         try {
-            // Remove "Bearer " prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            // Remove any leading/trailing whitespace
-            token = token.trim();
-            
-            Key key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            principal = verifiedTokenCache.get(token, jwt -> TokenPrincipal.from(tokenCodec.decodeAccessToken(jwt)));
         } catch (IllegalArgumentException e) {
-            System.err.println("Invalid JWT format: " + e.getMessage());
-            return false;
+            throw new AuthenticationException("Invalid JWT format", e);
         } catch (JwtException e) {
-            System.err.println("JWT validation failed: " + e.getMessage());
-            return false;
+            throw new AuthenticationException("Invalid token", e);
         }
-    }
 
-    public String getUserEmailFromToken(String token) {
-        // Remove "Bearer " prefix if present
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        if (!validateAccessToken(token)) {
-            throw new AuthenticationException("Invalid token");
+        if (principal.getEpoch() < tokenEpochCache.current(principal.getSubject())) {
+            throw new AuthenticationException("Token has been revoked");
         }
+        return principal;
+    }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean validateAccessToken(String token) {
         try {
-            Key key = Keys.hmacShaKeyFor(secretKey.getBytes());
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-            return claims.getSubject();
-        } catch (JwtException e) {
-            throw new AuthenticationException("Failed to extract email from token", e);
+            verifyAccessToken(token);
+            return true;
+        } catch (AuthenticationException e) {
+            logger.debug("Access token validation failed: {}", e.getMessage());
+            return false;
         }
     }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getUserEmailFromToken(String token) {
+        return verifyAccessToken(token).getSubject();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.sertac.ai.service;
+
+import java.time.Duration;
+import java.util.function.IntUnaryOperator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Repeats a set-based statement over at most {@code batchSize} rows, each call in its own short
+ * transaction, with a pause between batches, until a batch comes back short or {@code maxBatches}
+ * have run. The purge jobs share it so that none of them holds locks for long or saturates
+ * replication.
+ */
+final class BatchedPurge {
+
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+    private final Timer batchTimer;
+
+    BatchedPurge(int batchSize, int maxBatches, Duration pause, MeterRegistry meterRegistry,
+                 String timerName, String timerDescription) {
+        if (batchSize <= 0 || maxBatches <= 0) {
+            throw new IllegalArgumentException("Purge batch size and batch count must be positive");
+        }
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pause = pause;
+        this.batchTimer = Timer.builder(timerName)
+                .description(timerDescription)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code batch}, which is given the batch size and returns the rows it changed, and adds
+     * each batch's rows to {@code affected}. Returns the total. Stops early if interrupted.
+     */
+    long run(IntUnaryOperator batch, Counter affected) {
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Timer.Sample sample = Timer.start();
+            int rows = batch.applyAsInt(batchSize);
+            sample.stop(batchTimer);
+            affected.increment(rows);
+            total += rows;
+            if (rows < batchSize || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sertac.ai.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sertac.ai.config.SchedulingConfig;
+import com.sertac.ai.repository.EmailOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deletes outbox messages the dispatcher is done with. A {@code SENT} row has already had its body
+ * cleared by {@code markSent}; a {@code FAILED} row keeps its body and last error so a message that
+ * was given up on can still be inspected. Both are kept for
+ * {@code auth.email-outbox-purge.retention} after their final attempt, which {@code next_attempt_at}
+ * records for either status, and are then deleted.
+ * <p>
+ * {@code PENDING} rows never match, including ones a dispatcher has claimed under its lease, so a
+ * purge cannot delete a message that is about to be sent. Deletes go through a {@link BatchedPurge}
+ * to keep each one short next to the dispatcher's {@code SKIP LOCKED} claims on the same table.
+ */
+@Component
+public class EmailOutboxPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxPurger.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final BatchedPurge batches;
+    private final Duration retention;
+    private final Clock clock;
+    private final Counter purged;
+
+    @Autowired
+    public EmailOutboxPurger(EmailOutboxRepository emailOutboxRepository,
+                             @Value("${auth.email-outbox-purge.batch-size:1000}") int batchSize,
+                             @Value("${auth.email-outbox-purge.max-batches:500}") int maxBatches,
+                             @Value("${auth.email-outbox-purge.pause:PT0.05S}") Duration pause,
+                             @Value("${auth.email-outbox-purge.retention:P1D}") Duration retention,
+                             MeterRegistry meterRegistry) {
+        this(emailOutboxRepository, batchSize, maxBatches, pause, retention, meterRegistry, Clock.systemUTC());
+    }
+
+    EmailOutboxPurger(EmailOutboxRepository emailOutboxRepository, int batchSize, int maxBatches, Duration pause,
+                      Duration retention, MeterRegistry meterRegistry, Clock clock) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.batches = new BatchedPurge(batchSize, maxBatches, pause, meterRegistry,
+                "auth.email_outbox.purge.batch", "Latency of a single outbox purge batch");
+        this.retention = retention;
+        this.clock = clock;
+        this.purged = Counter.builder("auth.email_outbox.purged")
+                .description("Sent or failed outbox rows deleted by the purge job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.email-outbox-purge.interval:PT15M}",
+               initialDelayString = "${auth.email-outbox-purge.initial-delay:PT1M}",
+               scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void purge() {
+        Instant before = clock.instant().minus(retention);
+
+        long deleted = batches.run(limit -> emailOutboxRepository.deleteFinishedBatch(before, limit), purged);
+        if (deleted > 0) {
+            logger.info("Purged {} sent or failed outbox messages", deleted);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.sertac.ai.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.model.enums.EmailOutboxStatus;
+import com.sertac.ai.model.event.EmailQueuedEvent;
+import com.sertac.ai.repository.EmailOutboxRepository;
+
+/**
+ * Transactional outbox for outgoing mail. Callers enqueue messages in their own transaction, so a
+ * message exists exactly when the change that caused it commits; the {@code EmailOutboxDispatcher}
+ * sends it afterwards, off the request thread.
+ */
+@Service
+@Transactional
+public class EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    @Autowired
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository, ApplicationEventPublisher eventPublisher) {
+        this(emailOutboxRepository, eventPublisher, Clock.systemUTC());
+    }
+
+    EmailOutboxService(EmailOutboxRepository emailOutboxRepository, ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    public EmailOutbox enqueue(String recipient, String subject, String body) {
+        EmailOutbox message = emailOutboxRepository.save(new EmailOutbox(recipient, subject, body, clock.instant()));
+        eventPublisher.publishEvent(new EmailQueuedEvent(message.getId()));
+        return message;
+    }
+
+    /**
+     * Claims up to {@code limit} due messages for sending. Each claimed message counts an attempt
+     * and is leased until {@code now + lease}; if the claimant dies before reporting back, the
+     * message becomes due again when the lease runs out.
+     */
+    public List<EmailOutbox> claimDue(int limit, Duration lease) {
+        Instant now = clock.instant();
+        List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(EmailOutboxStatus.PENDING, now, PageRequest.of(0, limit));
+        for (EmailOutbox message : due) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plus(lease));
+        }
+        return due;
+    }
+
+    public void markSent(Long id) {
+        emailOutboxRepository.markSent(id, EmailOutboxStatus.SENT, clock.instant());
+    }
+
+    /**
+     * Records a failed attempt; the message is retried at {@code retryAt}, or given up on when
+     * {@code retryAt} is {@code null}.
+     */
+    public void markAttemptFailed(Long id, String error, Instant retryAt) {
+        EmailOutboxStatus status = retryAt == null ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING;
+        Instant nextAttemptAt = retryAt == null ? clock.instant() : retryAt;
+        emailOutboxRepository.markAttemptFailed(id, status, nextAttemptAt, truncate(error));
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,57 @@
+package com.sertac.ai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.sertac.ai.model.exception.BadRequestException;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor is the URL-safe Base64 of
+ * {@code <kind>:<last key>}, so it stays valid while rows are added or removed, and a cursor from
+ * one listing is rejected by another.
+ */
+public final class PageCursor {
+
+    public static final String USERS = "u1";
+    public static final String SESSIONS = "s1";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String kind, String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((kind + ':' + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key in {@code cursor}, or {@code null} for a missing cursor, which means the
+     * first page.
+     */
+    public static String decode(String kind, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!decoded.startsWith(kind + ':')) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return decoded.substring(kind.length() + 1);
+    }
+
+    public static long decodeLong(String kind, String cursor) {
+        String key = decode(kind, cursor);
+        if (key == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
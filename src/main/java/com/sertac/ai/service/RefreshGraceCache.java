@@ -0,0 +1,125 @@
+package com.sertac.ai.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sertac.ai.model.dto.RefreshTokenResponse;
+import com.sertac.ai.model.exception.AuthenticationException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers the token pair issued for each rotated refresh token for a short grace window, so a
+ * client that retries the same refresh (app resume racing a background sync, say) gets the same
+ * pair back instead of an "already used" error and a forced re-login.
+ * <p>
+ * Entries are keyed by the {@code jti} of the presented token, which callers must have verified.
+ * The first request for a {@code jti} runs the rotation; requests arriving while it is in flight
+ * wait for its result, and later ones within the window receive it from memory without touching
+ * the database. A result is only shared once the rotating transaction has committed, and failures
+ * are never cached. The cache is node-local: a retry that lands on another instance still fails.
+ * Set {@code auth.refresh-grace.window} to zero to disable it.
+ */
+@Component
+public class RefreshGraceCache {
+
+    private static final String REUSED = "Refresh token is invalid or has already been used";
+
+    private final Cache<String, CompletableFuture<RefreshTokenResponse>> cache;
+    private final long waitTimeoutNanos;
+
+    @Autowired
+    public RefreshGraceCache(@Value("${auth.refresh-grace.window:PT10S}") Duration window,
+                             @Value("${auth.refresh-grace.maximum-size:10000}") long maximumSize,
+                             @Value("${auth.refresh-grace.wait-timeout:PT2S}") Duration waitTimeout,
+                             MeterRegistry meterRegistry) {
+        this(window, maximumSize, waitTimeout, Ticker.systemTicker());
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "refreshGrace");
+        }
+    }
+
+    RefreshGraceCache(Duration window, long maximumSize, Duration waitTimeout, Ticker ticker) {
+        this.cache = window.isZero() || window.isNegative() ? null : Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * Returns the pair already issued for {@code tokenId} within the grace window, or runs
+     * {@code rotation} and remembers its result once the current transaction commits.
+     */
+    public RefreshTokenResponse getOrRotate(String tokenId, Supplier<RefreshTokenResponse> rotation) {
+        if (cache == null) {
+            return rotation.get();
+        }
+
+        CompletableFuture<RefreshTokenResponse> mine = new CompletableFuture<>();
+        CompletableFuture<RefreshTokenResponse> existing = cache.asMap().putIfAbsent(tokenId, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        RefreshTokenResponse response;
+        try {
+            response = rotation.get();
+        } catch (RuntimeException e) {
+            fail(tokenId, mine, e);
+            throw e;
+        }
+        completeAfterCommit(tokenId, mine, response);
+        return response;
+    }
+
+    private RefreshTokenResponse await(CompletableFuture<RefreshTokenResponse> result) {
+        try {
+            return result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationException(REUSED, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AuthenticationException(REUSED, e);
+        }
+    }
+
+    private void completeAfterCommit(String tokenId, CompletableFuture<RefreshTokenResponse> result,
+                                     RefreshTokenResponse response) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            result.complete(response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    result.complete(response);
+                } else {
+                    fail(tokenId, result, new IllegalStateException("Refresh transaction did not commit"));
+                }
+            }
+        });
+    }
+
+    private void fail(String tokenId, CompletableFuture<RefreshTokenResponse> result, Throwable cause) {
+        cache.asMap().remove(tokenId, result);
+        result.completeExceptionally(cause);
+    }
+}
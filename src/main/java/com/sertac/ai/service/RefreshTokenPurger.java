@@ -0,0 +1,80 @@
+package com.sertac.ai.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sertac.ai.config.SchedulingConfig;
+import com.sertac.ai.repository.RefreshTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deletes refresh tokens past their expiry, and revoked tokens past a retention window, so the
+ * table tracks live sessions rather than every session ever issued.
+ * <p>
+ * Rows are deleted by a {@link BatchedPurge} in batches of
+ * {@code auth.refresh-token-purge.batch-size}. A run stops after {@code max-batches} batches per
+ * kind; the next run picks up where it left off.
+ */
+@Component
+public class RefreshTokenPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurger.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final BatchedPurge batches;
+    private final Duration revokedRetention;
+    private final Clock clock;
+    private final Counter expiredPurged;
+    private final Counter revokedPurged;
+
+    @Autowired
+    public RefreshTokenPurger(RefreshTokenRepository refreshTokenRepository,
+                              @Value("${auth.refresh-token-purge.batch-size:1000}") int batchSize,
+                              @Value("${auth.refresh-token-purge.max-batches:500}") int maxBatches,
+                              @Value("${auth.refresh-token-purge.pause:PT0.05S}") Duration pause,
+                              @Value("${auth.refresh-token-purge.revoked-retention:P7D}") Duration revokedRetention,
+                              MeterRegistry meterRegistry) {
+        this(refreshTokenRepository, batchSize, maxBatches, pause, revokedRetention, meterRegistry, Clock.systemUTC());
+    }
+
+    RefreshTokenPurger(RefreshTokenRepository refreshTokenRepository, int batchSize, int maxBatches, Duration pause,
+                       Duration revokedRetention, MeterRegistry meterRegistry, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.batches = new BatchedPurge(batchSize, maxBatches, pause, meterRegistry,
+                "auth.refresh_tokens.purge.batch", "Latency of a single purge batch");
+        this.revokedRetention = revokedRetention;
+        this.clock = clock;
+        this.expiredPurged = Counter.builder("auth.refresh_tokens.purged")
+                .description("Refresh token rows deleted by the purge job")
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        this.revokedPurged = Counter.builder("auth.refresh_tokens.purged")
+                .description("Refresh token rows deleted by the purge job")
+                .tag("reason", "revoked")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token-purge.interval:PT15M}",
+               initialDelayString = "${auth.refresh-token-purge.initial-delay:PT1M}",
+               scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void purge() {
+        Date now = Date.from(clock.instant());
+        Date revokedBefore = Date.from(clock.instant().minus(revokedRetention));
+
+        long expired = batches.run(limit -> refreshTokenRepository.deleteExpiredBatch(now, limit), expiredPurged);
+        long revoked = batches.run(limit -> refreshTokenRepository.deleteRevokedBatch(revokedBefore, limit), revokedPurged);
+        if (expired + revoked > 0) {
+            logger.info("Purged {} expired and {} revoked refresh tokens", expired, revoked);
+        }
+    }
+}
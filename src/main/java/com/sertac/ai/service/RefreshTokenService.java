@@ -1,60 +1,165 @@
 package com.sertac.ai.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.sertac.ai.config.SchedulingConfig;
 import com.sertac.ai.model.entity.RefreshToken;
 import com.sertac.ai.model.enums.RefreshTokenStatus;
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
 import com.sertac.ai.model.exception.AuthenticationException;
 import com.sertac.ai.repository.RefreshTokenRepository;
+import com.sertac.ai.security.RevokedTokenFilter;
 
 @Service
 @Transactional
 public class RefreshTokenService {
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenFilter revokedTokenFilter;
 
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, RevokedTokenFilter revokedTokenFilter) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedTokenFilter = revokedTokenFilter;
     }
 
-    public void saveRefreshToken(String tokenId, String email, String token, Date expiryDate) {
-        RefreshToken refreshToken = new RefreshToken(tokenId,email, token, expiryDate);
+    public void saveRefreshToken(String tokenId, String email, int epoch, String token, Date expiryDate) {
+        RefreshToken refreshToken = new RefreshToken(tokenId, email, epoch, hashToken(token), expiryDate);
         refreshTokenRepository.save(refreshToken);
     }
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    /**
+     * Atomically retires an active, unexpired token so it can be exchanged exactly once.
+     *
+     * @return {@code true} if this call rotated the token; {@code false} if it is unknown, does
+     *         not match the stored hash, has expired, or was already rotated or revoked
+     */
+    public boolean rotateRefreshToken(String tokenId, String token) {
+        boolean rotated = refreshTokenRepository.compareAndSetStatus(tokenId, hashToken(token),
+                RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED, new Date()) == 1;
+        if (rotated) {
+            addToRevokedTokenFilter(tokenId);
+        }
+        return rotated;
     }
 
     public void deactivateRefreshToken(RefreshToken refreshToken) {
         refreshToken.setStatus(RefreshTokenStatus.INACTIVE);
+        refreshToken.setRevokedAt(new Date());
         refreshTokenRepository.save(refreshToken);
+        addToRevokedTokenFilter(refreshToken.getTokenId());
     }
 
-    public void revokeRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+    public void revokeRefreshToken(String tokenId) {
+        RefreshToken refreshToken = refreshTokenRepository.findById(tokenId)
                 .orElseThrow(() -> new AuthenticationException("Refresh token not found"));
         deactivateRefreshToken(refreshToken);
     }
 
-    public void blacklistToken(String token) {
-        RefreshToken refreshToken = findByToken(token)
+    public void blacklistToken(String tokenId) {
+        RefreshToken refreshToken = refreshTokenRepository.findById(tokenId)
             .orElseThrow(() -> new AuthenticationException("Token not found"));
+        blacklistToken(refreshToken);
+    }
+
+    public void blacklistToken(RefreshToken refreshToken) {
         refreshToken.setStatus(RefreshTokenStatus.BLACKLISTED);
+        refreshToken.setRevokedAt(new Date());
         refreshTokenRepository.save(refreshToken);
+        addToRevokedTokenFilter(refreshToken.getTokenId());
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return findByToken(token)
-            .map(t -> RefreshTokenStatus.BLACKLISTED.equals(t.getStatus()))
+    /**
+     * Returns {@code true} if {@code tokenId} is known and no longer {@code ACTIVE}. Ids that the
+     * {@link RevokedTokenFilter} rules out are answered without a query, and so are repeated
+     * replays of a token that has already been confirmed as revoked.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean isTokenRevoked(String tokenId) {
+        if (!revokedTokenFilter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revokedTokenFilter.isConfirmed(tokenId)) {
+            return true;
+        }
+        boolean revoked = refreshTokenRepository.findById(tokenId)
+            .map(t -> !RefreshTokenStatus.ACTIVE.equals(t.getStatus()))
             .orElse(false);
+        if (revoked) {
+            revokedTokenFilter.confirm(tokenId);
+        }
+        return revoked;
+    }
+
+    /**
+     * Rebuilds the {@link RevokedTokenFilter} from the table at startup and then periodically, which
+     * drops ids that have expired since the last build.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.revocation-filter.rebuild-interval:PT6H}",
+               initialDelayString = "${auth.revocation-filter.rebuild-interval:PT6H}",
+               scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    @Transactional(readOnly = true)
+    public void rebuildRevokedTokenFilter() {
+        try (Stream<String> tokenIds = refreshTokenRepository.streamRevokedTokenIds(RefreshTokenStatus.ACTIVE, new Date())) {
+            revokedTokenFilter.rebuild(tokenIds);
+        }
+    }
+
+    /**
+     * Marks the user's remaining active rows inactive once a revoke-all has committed. The epoch
+     * check already rejects these tokens, so this only tidies up and runs off the request thread.
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void retireActiveTokens(UserTokensRevokedEvent event) {
+        // Only rows from earlier epochs; the user may have signed in again since the bump
+        List<String> tokenIds = refreshTokenRepository.findStaleTokenIds(event.getEmail(), RefreshTokenStatus.ACTIVE);
+        if (tokenIds.isEmpty()) {
+            return;
+        }
+        refreshTokenRepository.updateStatusByTokenIds(tokenIds, RefreshTokenStatus.ACTIVE, RefreshTokenStatus.INACTIVE, new Date());
+        tokenIds.forEach(this::addToRevokedTokenFilter);
+    }
+
+    // Added after commit, so a concurrent rebuild either reads the committed row or sees the id in
+    // RevokedTokenFilter.add; adding earlier could lose it to a rebuild that started in between
+    private void addToRevokedTokenFilter(String tokenId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revokedTokenFilter.add(tokenId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revokedTokenFilter.add(tokenId);
+            }
+        });
     }
 
-    public List<RefreshToken> findActiveTokensByEmail(String email) {
-        return refreshTokenRepository.findByEmailAndStatus(email, RefreshTokenStatus.ACTIVE);
+    static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.sertac.ai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sertac.ai.model.dto.IntrospectionRequest;
+import com.sertac.ai.model.dto.IntrospectionResponse;
+import com.sertac.ai.model.dto.TokenIntrospection;
+import com.sertac.ai.model.exception.AuthenticationException;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.security.TokenPrincipal;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Introspects batches of access tokens for the API gateway. Large batches are split into one chunk
+ * per core and verified in parallel on a dedicated pool, so introspection never competes with the
+ * common fork-join pool. Results keep the order of the request.
+ */
+@Service
+public class TokenIntrospectionService {
+
+    private final AuthService authService;
+    private final int maxBatchSize;
+    private final int parallelThreshold;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public TokenIntrospectionService(AuthService authService,
+                                     @Value("${auth.introspection.max-batch-size:500}") int maxBatchSize,
+                                     @Value("${auth.introspection.parallel-threshold:16}") int parallelThreshold) {
+        this.authService = authService;
+        this.maxBatchSize = maxBatchSize;
+        this.parallelThreshold = parallelThreshold;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "token-introspection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public IntrospectionResponse introspect(IntrospectionRequest request) {
+        List<String> tokens = request.getTokens();
+        if (tokens == null || tokens.isEmpty()) {
+            throw new BadRequestException("At least one token is required");
+        }
+        if (tokens.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " tokens can be introspected per request");
+        }
+
+        if (tokens.size() < parallelThreshold || parallelism == 1) {
+            return new IntrospectionResponse(introspectChunk(tokens));
+        }
+
+        int chunkSize = (tokens.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<List<TokenIntrospection>>> chunks = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> chunk = tokens.subList(from, Math.min(from + chunkSize, tokens.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> introspectChunk(chunk), executor));
+        }
+
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (CompletableFuture<List<TokenIntrospection>> chunk : chunks) {
+            results.addAll(chunk.join());
+        }
+        return new IntrospectionResponse(results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<TokenIntrospection> introspectChunk(List<String> tokens) {
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    private TokenIntrospection introspect(String token) {
+        try {
+            TokenPrincipal principal = authService.verifyAccessToken(token);
+            return new TokenIntrospection(true,
+                    principal.getSubject(),
+                    principal.getIssuedAt() == null ? null : principal.getIssuedAt().getEpochSecond(),
+                    principal.getExpiresAt() == null ? null : principal.getExpiresAt().getEpochSecond(),
+                    principal.getTokenId());
+        } catch (AuthenticationException e) {
+            return TokenIntrospection.inactive();
+        }
+    }
+}
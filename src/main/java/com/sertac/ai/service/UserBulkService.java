@@ -0,0 +1,337 @@
+package com.sertac.ai.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sertac.ai.email.EmailUtils;
+import com.sertac.ai.model.dto.UserImportResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Imports and exports users in bulk, as CSV or newline-delimited JSON, without holding either the
+ * input or the {@code users} table in memory.
+ * <p>
+ * Import reads one user per line. Each email is validated and canonicalized like at the login
+ * endpoints, and valid rows are written with {@code INSERT IGNORE} in JDBC batches of
+ * {@code auth.user-import.batch-size}, one transaction per batch, so existing emails are skipped
+ * rather than failing the batch and a partial import can simply be run again. Set
+ * {@code rewriteBatchedStatements=true} on the MySQL URL to send each batch as a single statement;
+ * the driver then stops reporting per-row counts and such rows are counted as inserted.
+ * <p>
+ * Export streams the table in primary key order. The default fetch size of
+ * {@code Integer.MIN_VALUE} makes MySQL Connector/J stream rows instead of buffering the result.
+ * Exported files can be imported again: CSV import takes the {@code email} column named by the
+ * header, or the first column when there is no header.
+ * <p>
+ * New users need no cache invalidation, as {@link UserCache} never caches missing users.
+ */
+@Service
+public class UserBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBulkService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    static final String INSERT_SQL = "INSERT IGNORE INTO users (email, created_at, token_epoch) VALUES (?, ?, 0)";
+    static final String EXPORT_SQL = "SELECT id, email, created_at, token_epoch FROM users ORDER BY id";
+
+    // Length of users.email; INSERT IGNORE would silently truncate longer values
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final String EMAIL_COLUMN = "email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedFailures;
+    private final int exportFetchSize;
+    private final boolean emailProviderRules;
+    private final Clock clock;
+    private final Counter inserted;
+    private final Counter skipped;
+    private final Counter failed;
+
+    @Autowired
+    public UserBulkService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           @Value("${auth.user-import.batch-size:1000}") int batchSize,
+                           @Value("${auth.user-import.max-reported-failures:1000}") int maxReportedFailures,
+                           @Value("${auth.user-export.fetch-size:" + Integer.MIN_VALUE + "}") int exportFetchSize,
+                           @Value("${auth.email.provider-rules:false}") boolean emailProviderRules,
+                           MeterRegistry meterRegistry) {
+        // created_at is stamped with LocalDateTime.now() elsewhere, so use the same zone
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), objectMapper, batchSize,
+                maxReportedFailures, exportFetchSize, emailProviderRules, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    UserBulkService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                    int batchSize, int maxReportedFailures, int exportFetchSize, boolean emailProviderRules,
+                    MeterRegistry meterRegistry, Clock clock) {
+        if (batchSize <= 0 || maxReportedFailures < 0) {
+            throw new IllegalArgumentException("Import batch size must be positive and the failure limit non-negative");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedFailures = maxReportedFailures;
+        this.exportFetchSize = exportFetchSize;
+        this.emailProviderRules = emailProviderRules;
+        this.clock = clock;
+        this.inserted = importCounter(meterRegistry, "inserted");
+        this.skipped = importCounter(meterRegistry, "skipped");
+        this.failed = importCounter(meterRegistry, "failed");
+    }
+
+    private static Counter importCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.user_import.rows")
+                .description("Rows processed by bulk user imports")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public UserImportResponse importUsers(InputStream input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        UserImportResponse result = new UserImportResponse();
+        List<Row> batch = new ArrayList<>(batchSize);
+        int emailColumn = -1;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String value;
+            if (format == Format.CSV) {
+                List<String> columns = parseCsvLine(line);
+                if (emailColumn < 0) {
+                    emailColumn = headerIndex(columns);
+                    if (emailColumn >= 0) {
+                        continue;
+                    }
+                    emailColumn = 0;
+                }
+                value = emailColumn < columns.size() ? columns.get(emailColumn) : null;
+            } else {
+                try {
+                    value = ndjsonEmail(line);
+                } catch (JsonProcessingException e) {
+                    result.setProcessed(result.getProcessed() + 1);
+                    fail(result, lineNumber, "Malformed JSON");
+                    continue;
+                }
+            }
+
+            result.setProcessed(result.getProcessed() + 1);
+            String email = EmailUtils.canonicalize(value, emailProviderRules);
+            if (email == null || email.length() > MAX_EMAIL_LENGTH) {
+                fail(result, lineNumber, value == null ? "Missing email" : "Invalid email format");
+                continue;
+            }
+            batch.add(new Row(lineNumber, email));
+            if (batch.size() == batchSize) {
+                insertBatch(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, result);
+        }
+        return result;
+    }
+
+    private void insertBatch(List<Row> batch, UserImportResponse result) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    (ps, row) -> {
+                        ps.setString(1, row.email());
+                        ps.setObject(2, now);
+                    })[0]);
+        } catch (DataAccessException e) {
+            // The batch rolled back as a whole; report its rows and carry on with the rest of the input
+            logger.warn("User import batch of {} rows failed: {}", batch.size(), e.getMessage());
+            for (Row row : batch) {
+                fail(result, row.line(), "Database error");
+            }
+            return;
+        }
+        for (int count : counts) {
+            // A rewritten batch reports Statement.SUCCESS_NO_INFO, which counts as inserted
+            if (count == 0) {
+                result.setSkipped(result.getSkipped() + 1);
+                skipped.increment();
+            } else {
+                result.setInserted(result.getInserted() + 1);
+                inserted.increment();
+            }
+        }
+    }
+
+    private void fail(UserImportResponse result, long line, String reason) {
+        result.setFailed(result.getFailed() + 1);
+        failed.increment();
+        if (result.getFailures().size() < maxReportedFailures) {
+            result.getFailures().add(new UserImportResponse.Failure(line, reason));
+        } else {
+            result.setFailuresTruncated(true);
+        }
+    }
+
+    private String ndjsonEmail(String line) throws JsonProcessingException {
+        JsonNode email = objectMapper.readTree(line).path(EMAIL_COLUMN);
+        return email.isTextual() ? email.asText() : null;
+    }
+
+    private static int headerIndex(List<String> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (EMAIL_COLUMN.equals(columns.get(i).trim().toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted fields may contain commas and doubled quotes, but not line
+     * breaks, which emails never need.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    column.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    /**
+     * Writes every user to {@code output}. Rows are written as they are read, so this holds one
+     * connection for as long as the client takes to read the export.
+     */
+    public void exportUsers(OutputStream output, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        final JsonGenerator json = format == Format.NDJSON ? ndjsonGenerator(writer) : null;
+        if (format == Format.CSV) {
+            writer.write("id,email,created_at,token_epoch\n");
+        }
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(exportFetchSize);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    if (json != null) {
+                        writeJson(json, rs);
+                    } else {
+                        writeCsv(writer, rs);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private JsonGenerator ndjsonGenerator(Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        // One object per line, without the space Jackson puts between root values by default
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private static void writeJson(JsonGenerator json, ResultSet rs) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", rs.getLong("id"));
+        json.writeStringField(EMAIL_COLUMN, rs.getString(EMAIL_COLUMN));
+        json.writeStringField("createdAt", String.valueOf(rs.getObject("created_at", LocalDateTime.class)));
+        json.writeNumberField("tokenEpoch", rs.getInt("token_epoch"));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, ResultSet rs) throws IOException, SQLException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(csvField(rs.getString(EMAIL_COLUMN)));
+        writer.write(',');
+        writer.write(String.valueOf(rs.getObject("created_at", LocalDateTime.class)));
+        writer.write(',');
+        writer.write(Integer.toString(rs.getInt("token_epoch")));
+        writer.write('\n');
+    }
+
+    // Canonical emails never need quoting, but rows created before validation was tightened might
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record Row(long line, String email) {
+    }
+}
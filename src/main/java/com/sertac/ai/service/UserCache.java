@@ -0,0 +1,151 @@
+package com.sertac.ai.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sertac.ai.config.SchedulingConfig;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.model.entity.UserChange;
+import com.sertac.ai.repository.UserChangeRepository;
+import com.sertac.ai.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of users by canonical email, so the user lookups behind verify, refresh and
+ * {@code /api/users/me} do not each cost a query. Only existing users are cached.
+ * <p>
+ * Every change to a user row must go through {@link #changed(String)} inside the changing
+ * transaction. That records the change in {@code user_changes} and evicts the entry on this
+ * instance once the transaction commits. Other instances poll {@code user_changes} every
+ * {@code auth.user-cache.poll-interval} and evict what changed. Each poll looks back an extra
+ * {@code auth.user-cache.poll-overlap} to cover transactions that committed late and clock skew
+ * between nodes. {@code auth.user-cache.ttl} bounds staleness if polling stops. Changes older than
+ * {@code auth.user-cache.change-retention} are deleted by a {@link BatchedPurge}.
+ * <p>
+ * Cached users are shared between threads and must be treated as read-only. They may be stale, so
+ * token epochs for revocation checks come from {@code TokenEpochCache}, never from a cached user.
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    private final UserRepository userRepository;
+    private final UserChangeRepository userChangeRepository;
+    private final Cache<String, User> cache;
+    private final Duration pollOverlap;
+    private final Duration changeRetention;
+    private final BatchedPurge purgeBatches;
+    private final Counter changesPurged;
+    private final Clock clock;
+    private volatile Instant lastPoll;
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     UserChangeRepository userChangeRepository,
+                     @Value("${auth.user-cache.maximum-size:100000}") long maximumSize,
+                     @Value("${auth.user-cache.ttl:PT10M}") Duration ttl,
+                     @Value("${auth.user-cache.poll-overlap:PT10S}") Duration pollOverlap,
+                     @Value("${auth.user-cache.change-retention:PT1H}") Duration changeRetention,
+                     @Value("${auth.user-cache.purge-batch-size:1000}") int purgeBatchSize,
+                     @Value("${auth.user-cache.purge-max-batches:500}") int purgeMaxBatches,
+                     @Value("${auth.user-cache.purge-pause:PT0.05S}") Duration purgePause,
+                     MeterRegistry meterRegistry) {
+        this(userRepository, userChangeRepository, maximumSize, ttl, pollOverlap, changeRetention, purgeBatchSize,
+                purgeMaxBatches, purgePause, meterRegistry, Ticker.systemTicker(), Clock.systemUTC());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    UserCache(UserRepository userRepository, UserChangeRepository userChangeRepository, long maximumSize,
+              Duration ttl, Duration pollOverlap, Duration changeRetention, int purgeBatchSize, int purgeMaxBatches,
+              Duration purgePause, MeterRegistry meterRegistry, Ticker ticker, Clock clock) {
+        this.userRepository = userRepository;
+        this.userChangeRepository = userChangeRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.pollOverlap = pollOverlap;
+        this.changeRetention = changeRetention;
+        this.purgeBatches = new BatchedPurge(purgeBatchSize, purgeMaxBatches, purgePause, meterRegistry,
+                "auth.user_changes.purge.batch", "Latency of a single user change purge batch");
+        this.changesPurged = Counter.builder("auth.user_changes.purged")
+                .description("User change rows deleted by the purge job")
+                .register(meterRegistry);
+        this.clock = clock;
+        this.lastPoll = clock.instant();
+    }
+
+    /**
+     * Returns the user with {@code email}, or {@code null} if there is none.
+     */
+    public User findByEmail(String email) {
+        return cache.get(email, userRepository::findByEmail);
+    }
+
+    /**
+     * Returns the cached user with {@code email} without loading it, or {@code null}.
+     */
+    public User getIfPresent(String email) {
+        return cache.getIfPresent(email);
+    }
+
+    /**
+     * Records that the user with {@code email} is changing in the current transaction.
+     */
+    public void changed(String email) {
+        userChangeRepository.save(new UserChange(email, clock.instant()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(email);
+            return;
+        }
+        // Evicting before the change commits would let a concurrent reader cache the old row again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(email);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${auth.user-cache.poll-interval:PT1S}")
+    public void pollChanges() {
+        Instant now = clock.instant();
+        for (String email : userChangeRepository.findEmailsChangedSince(lastPoll.minus(pollOverlap))) {
+            cache.invalidate(email);
+        }
+        lastPoll = now;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.user-cache.purge-interval:PT10M}", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void purgeChanges() {
+        Instant before = clock.instant().minus(changeRetention);
+        long purged = purgeBatches.run(limit -> userChangeRepository.deleteBatch(before, limit), changesPurged);
+        if (purged > 0) {
+            logger.debug("Purged {} user changes", purged);
+        }
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -7,14 +7,18 @@ import com.sertac.ai.email.EmailUtils;
 import com.sertac.ai.model.entity.User;
 import com.sertac.ai.repository.UserRepository;
 
+import java.time.LocalDateTime;
+
 @Service
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     public User createUser(User user) {
@@ -33,27 +37,58 @@ public class UserService {
             throw new IllegalArgumentException("Invalid email format");
         }
 
-        // Check if email already exists
+        // Check if email already exists; ask the database, since the cache only holds users it has seen
         if (userRepository.findByEmail(user.getEmail()) != null) {
             throw new IllegalStateException("Email already exists");
         }
 
-
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.changed(saved.getEmail());
+        return saved;
     }
 
 
 
     public User findByEmail(String email) {
+        validateEmail(email);
+        return userCache.findByEmail(email);
+    }
+
+    /**
+     * Returns the user with {@code email}, creating it first if there is none. Unlike
+     * {@link #findByEmail} followed by {@link #createUser}, concurrent first logins for the same
+     * email all get the same user instead of one of them failing on the unique key.
+     */
+    public User findOrCreateUser(String email) {
+        validateEmail(email);
+
+        User cached = userCache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+        userRepository.insertIfAbsent(email, LocalDateTime.now());
+        return userRepository.findByEmailForShare(email);
+    }
+
+    // Emails are validated and canonicalized at the controller edge; existing rows may predate the
+    // current rules, so lookups only refuse a missing key
+    private static void validateEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Email cannot be null or empty");
         }
-        
-        if (!EmailUtils.isValidEmail(email)) {
-            throw new IllegalArgumentException("Invalid email format");
+    }
+
+    /**
+     * Bumps the user's token epoch, revoking every token issued so far in a single-row update.
+     *
+     * @return {@code true} if the user exists
+     */
+    public boolean incrementTokenEpoch(String email) {
+        if (userRepository.incrementTokenEpoch(email) != 1) {
+            return false;
         }
-        
-        return userRepository.findByEmail(email);
+        userCache.changed(email);
+        return true;
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.sertac.ai.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sertac.ai.config.SchedulingConfig;
+import com.sertac.ai.repository.VerificationCodeRepository;
+import com.sertac.ai.throttle.LockoutStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Marks verification codes past their expiration time as {@code EXPIRED}, and deletes used,
+ * replaced and expired codes once {@code auth.verification-code-purge.retention} has passed since
+ * they last changed, so the table only holds recent codes.
+ * <p>
+ * Both steps run through a {@link BatchedPurge} of {@code batch-size} rows; a run stops after
+ * {@code max-batches} batches per step and the next run continues. Each run also purges expired
+ * lockouts from the {@link LockoutStore}.
+ */
+@Component
+public class VerificationCodePurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationCodePurger.class);
+
+    private final VerificationCodeRepository verificationCodeRepository;
+    private final LockoutStore lockoutStore;
+    private final BatchedPurge batches;
+    private final Duration retention;
+    private final Clock clock;
+    private final Counter expired;
+    private final Counter deleted;
+
+    @Autowired
+    public VerificationCodePurger(VerificationCodeRepository verificationCodeRepository,
+                                  LockoutStore lockoutStore,
+                                  @Value("${auth.verification-code-purge.batch-size:1000}") int batchSize,
+                                  @Value("${auth.verification-code-purge.max-batches:500}") int maxBatches,
+                                  @Value("${auth.verification-code-purge.pause:PT0.05S}") Duration pause,
+                                  @Value("${auth.verification-code-purge.retention:P1D}") Duration retention,
+                                  MeterRegistry meterRegistry) {
+        // Codes are stamped with LocalDateTime.now(), so sweep in the same zone
+        this(verificationCodeRepository, lockoutStore, batchSize, maxBatches, pause, retention, meterRegistry,
+                Clock.systemDefaultZone());
+    }
+
+    VerificationCodePurger(VerificationCodeRepository verificationCodeRepository, LockoutStore lockoutStore,
+                           int batchSize, int maxBatches, Duration pause, Duration retention,
+                           MeterRegistry meterRegistry, Clock clock) {
+        this.verificationCodeRepository = verificationCodeRepository;
+        this.lockoutStore = lockoutStore;
+        this.batches = new BatchedPurge(batchSize, maxBatches, pause, meterRegistry,
+                "auth.verification_codes.purge.batch", "Latency of a single verification code purge batch");
+        this.retention = retention;
+        this.clock = clock;
+        this.expired = Counter.builder("auth.verification_codes.expired")
+                .description("Verification codes marked expired by the purge job")
+                .register(meterRegistry);
+        this.deleted = Counter.builder("auth.verification_codes.purged")
+                .description("Verification code rows deleted by the purge job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.verification-code-purge.interval:PT5M}",
+               initialDelayString = "${auth.verification-code-purge.initial-delay:PT1M}",
+               scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime updatedBefore = now.minus(retention);
+
+        long expiredCount = batches.run(limit -> verificationCodeRepository.expireBatch(now, limit), expired);
+        long deletedCount = batches.run(limit -> verificationCodeRepository.deleteRetiredBatch(updatedBefore, limit), deleted);
+        if (expiredCount + deletedCount > 0) {
+            logger.info("Expired {} and deleted {} verification codes", expiredCount, deletedCount);
+        }
+
+        // Clear expired lockouts and idle attempt counters
+        lockoutStore.purgeExpired();
+    }
+}
@@ -0,0 +1,61 @@
+package com.sertac.ai.throttle;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size count-min sketch: {@code depth * width} counters, whatever the number of distinct
+ * keys. Estimates never undercount; with {@code width} {@code w} and {@code depth} {@code d} they
+ * overcount by more than {@code e/w} of the total only with probability {@code e^-d}. Increments
+ * are lock-free; {@link #clear()} racing with them may drop a few counts.
+ */
+final class CountMinSketch {
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int depth;
+
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Invalid count-min sketch size");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicIntegerArray(Math.multiplyExact(width, depth));
+    }
+
+    /**
+     * Adds one occurrence of the key with the given 64-bit hash and returns the new estimate.
+     */
+    int increment(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    int estimate(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    long sizeInBytes() {
+        return (long) counters.length() * Integer.BYTES;
+    }
+
+    // Double hashing from the two halves of the key's hash, one column per row
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,198 @@
+package com.sertac.ai.throttle;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Spots credential guessing that the per-email lockout cannot see: one client spraying guesses
+ * across many emails, or many clients hammering addresses at one email domain.
+ * <p>
+ * Failed verifications are counted per client IP and per email domain in count-min sketches, so
+ * memory stays constant however many distinct IPs or domains an attack uses. With the defaults,
+ * 4 rows of 8192 counters for each dimension and window come to 512 KiB in total, reported per
+ * dimension as {@code auth.guessing.sketch.bytes}. Counts cover
+ * the current and the previous {@code auth.guessing.window}. A source whose estimate reaches its
+ * threshold is rejected before any database work. Sketches only overcount, so a heavy hitter is
+ * never missed; under a very large attack an innocent source sharing counters with attackers may
+ * be rejected too, until the window rolls over.
+ * <p>
+ * A space-saving top-k summary per dimension names the heaviest sources of the current window.
+ * Those at or above their threshold are logged when the window rolls over.
+ */
+@Component
+public class CredentialGuessingDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialGuessingDetector.class);
+
+    private final Tracker clientIps;
+    private final Tracker emailDomains;
+    private final long windowMillis;
+    private final Clock clock;
+    private final long seed = new SecureRandom().nextLong();
+    private volatile long windowStart;
+
+    @Autowired
+    public CredentialGuessingDetector(@Value("${auth.guessing.window:PT10M}") Duration window,
+                                      @Value("${auth.guessing.ip-threshold:50}") int ipThreshold,
+                                      @Value("${auth.guessing.domain-threshold:5000}") int domainThreshold,
+                                      @Value("${auth.guessing.sketch-width:8192}") int sketchWidth,
+                                      @Value("${auth.guessing.sketch-depth:4}") int sketchDepth,
+                                      @Value("${auth.guessing.top-k:32}") int topK,
+                                      MeterRegistry meterRegistry) {
+        this(window, ipThreshold, domainThreshold, sketchWidth, sketchDepth, topK, meterRegistry, Clock.systemUTC());
+    }
+
+    CredentialGuessingDetector(Duration window, int ipThreshold, int domainThreshold, int sketchWidth, int sketchDepth,
+                               int topK, Clock clock) {
+        this(window, ipThreshold, domainThreshold, sketchWidth, sketchDepth, topK, new SimpleMeterRegistry(), clock);
+    }
+
+    private CredentialGuessingDetector(Duration window, int ipThreshold, int domainThreshold, int sketchWidth,
+                                       int sketchDepth, int topK, MeterRegistry meterRegistry, Clock clock) {
+        this.clientIps = new Tracker("ip", ipThreshold, sketchWidth, sketchDepth, topK, meterRegistry);
+        this.emailDomains = new Tracker("domain", domainThreshold, sketchWidth, sketchDepth, topK, meterRegistry);
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        this.windowStart = clock.millis();
+    }
+
+    /**
+     * Returns {@code true} if recent failures from {@code clientIp} or against the domain of
+     * {@code email} have reached their threshold. Either argument may be {@code null}.
+     */
+    public boolean isSuspect(String clientIp, String email) {
+        rotateIfDue();
+        return clientIps.exceeds(clientIp) || emailDomains.exceeds(domainOf(email));
+    }
+
+    public void recordFailure(String clientIp, String email) {
+        rotateIfDue();
+        clientIps.record(clientIp);
+        emailDomains.record(domainOf(email));
+    }
+
+    private void rotateIfDue() {
+        long now = clock.millis();
+        if (now - windowStart < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            long elapsed = now - windowStart;
+            if (elapsed < windowMillis) {
+                return;
+            }
+            // After two or more idle windows the previous window is stale as well
+            boolean skipped = elapsed >= 2 * windowMillis;
+            clientIps.rotate(skipped);
+            emailDomains.rotate(skipped);
+            windowStart = skipped ? now : windowStart + windowMillis;
+        }
+    }
+
+    private static String domainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Seeded so that nobody outside this process can pick keys that share counters with a victim
+    private long hash(String key) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private final class Tracker {
+
+        private final String dimension;
+        private final int threshold;
+        private final SpaceSaving topK;
+        private final Counter rejected;
+        private volatile Windows windows;
+
+        Tracker(String dimension, int threshold, int sketchWidth, int sketchDepth, int topK, MeterRegistry meterRegistry) {
+            this.dimension = dimension;
+            this.threshold = threshold;
+            this.topK = new SpaceSaving(topK);
+            this.windows = new Windows(new CountMinSketch(sketchWidth, sketchDepth), new CountMinSketch(sketchWidth, sketchDepth));
+            this.rejected = Counter.builder("auth.guessing.rejected")
+                    .description("Verification attempts rejected as credential guessing")
+                    .tag("dimension", dimension)
+                    .register(meterRegistry);
+            Gauge.builder("auth.guessing.sketch.bytes", this, Tracker::sizeInBytes)
+                    .description("Memory held by the count-min sketches of both windows")
+                    .tag("dimension", dimension)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+
+        long sizeInBytes() {
+            Windows current = windows;
+            return current.current.sizeInBytes() + current.previous.sizeInBytes();
+        }
+
+        boolean exceeds(String key) {
+            if (threshold <= 0 || key == null || key.isEmpty()) {
+                return false;
+            }
+            long hash = hash(key);
+            Windows current = windows;
+            if ((long) current.current.estimate(hash) + current.previous.estimate(hash) < threshold) {
+                return false;
+            }
+            rejected.increment();
+            return true;
+        }
+
+        void record(String key) {
+            if (threshold <= 0 || key == null || key.isEmpty()) {
+                return;
+            }
+            windows.current.increment(hash(key));
+            topK.offer(key);
+        }
+
+        void rotate(boolean skipped) {
+            for (HeavyHitter hitter : topK.top(Integer.MAX_VALUE)) {
+                if (hitter.count() - hitter.error() >= threshold) {
+                    logger.warn("Credential guessing suspected from {} {}: at least {} failures in the last window",
+                            dimension, hitter.key(), hitter.count() - hitter.error());
+                }
+            }
+            topK.clear();
+
+            Windows old = windows;
+            CountMinSketch recycled = old.previous;
+            recycled.clear();
+            if (skipped) {
+                old.current.clear();
+            }
+            windows = new Windows(recycled, old.current);
+        }
+    }
+
+    private record Windows(CountMinSketch current, CountMinSketch previous) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.sertac.ai.throttle;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.repository.VerificationLockoutRepository;
+
+/**
+ * {@link LockoutStore} backed by the {@code verification_lockouts} table, so every node behind the
+ * load balancer shares one counter per key and lockouts survive restarts. A failure costs one
+ * upsert plus one conditional update on the same row inside one transaction.
+ * <p>
+ * Failures and resets commit in their own transaction: a failed verification ends in an exception
+ * that rolls back the caller's transaction, and the attempt must still count.
+ */
+@Component
+@Transactional
+@ConditionalOnProperty(name = "auth.lockout.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseLockoutStore implements LockoutStore {
+
+    private final VerificationLockoutRepository verificationLockoutRepository;
+    private final int maxAttempts;
+    private final Duration lockoutDuration;
+    private final Duration counterIdleTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public DatabaseLockoutStore(VerificationLockoutRepository verificationLockoutRepository,
+                                @Value("${auth.lockout.max-attempts:5}") int maxAttempts,
+                                @Value("${auth.lockout.duration:PT15M}") Duration lockoutDuration,
+                                @Value("${auth.lockout.counter-idle-timeout:PT1H}") Duration counterIdleTimeout) {
+        this(verificationLockoutRepository, maxAttempts, lockoutDuration, counterIdleTimeout, Clock.systemUTC());
+    }
+
+    DatabaseLockoutStore(VerificationLockoutRepository verificationLockoutRepository, int maxAttempts,
+                         Duration lockoutDuration, Duration counterIdleTimeout, Clock clock) {
+        this.verificationLockoutRepository = verificationLockoutRepository;
+        this.maxAttempts = maxAttempts;
+        this.lockoutDuration = lockoutDuration;
+        this.counterIdleTimeout = counterIdleTimeout;
+        this.clock = clock;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isLocked(String key) {
+        return verificationLockoutRepository.existsByLockoutKeyAndLockedUntilAfter(key, clock.instant());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean recordFailure(String key) {
+        Instant now = clock.instant();
+        verificationLockoutRepository.incrementAttempts(key, now);
+        return verificationLockoutRepository.lockIfExceeded(key, maxAttempts, now.plus(lockoutDuration)) > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reset(String key) {
+        verificationLockoutRepository.deleteByKey(key);
+    }
+
+    @Override
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        verificationLockoutRepository.deleteExpired(now, now.minus(counterIdleTimeout));
+    }
+}
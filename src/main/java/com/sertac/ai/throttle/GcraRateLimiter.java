@@ -0,0 +1,70 @@
+package com.sertac.ai.throttle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Per-key rate limiter using the generic cell rate algorithm. Each key costs a single
+ * theoretical arrival time (TAT) updated with one atomic {@code compute}. A request is allowed
+ * when {@code now >= TAT - burstTolerance} and then pushes the TAT one emission interval further.
+ * An entry expires exactly when its TAT passes, since a key at rest has its full burst back.
+ * {@code maximumKeys} bounds memory; a key evicted early simply starts with a full burst.
+ */
+final class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Ticker ticker;
+    private final Cache<String, Long> arrivals;
+
+    GcraRateLimiter(RateLimitPolicy policy, long maximumKeys, Ticker ticker) {
+        this.emissionIntervalNanos = policy.emissionIntervalNanos();
+        this.burstToleranceNanos = emissionIntervalNanos * (policy.burst() - 1);
+        this.ticker = ticker;
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long tat, long currentTime) {
+                        return Math.max(0, tat - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long tat, long currentTime, long currentDuration) {
+                        return Math.max(0, tat - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long tat, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes one event for {@code key}. Returns 0 if it is allowed, or else the nanoseconds until
+     * it would be.
+     */
+    long tryAcquire(String key) {
+        long now = ticker.read();
+        long[] waitNanos = new long[1];
+        arrivals.asMap().compute(key, (k, tat) -> {
+            long base = tat == null || tat - now < 0 ? now : tat;
+            long allowedAt = base - burstToleranceNanos;
+            if (allowedAt - now > 0) {
+                waitNanos[0] = allowedAt - now;
+                return tat;
+            }
+            return base + emissionIntervalNanos;
+        });
+        return waitNanos[0];
+    }
+
+    long estimatedSize() {
+        return arrivals.estimatedSize();
+    }
+}
@@ -0,0 +1,8 @@
+package com.sertac.ai.throttle;
+
+/**
+ * A key reported by a top-k summary. The true count lies between {@code count - error} and
+ * {@code count}.
+ */
+record HeavyHitter(String key, long count, long error) {
+}
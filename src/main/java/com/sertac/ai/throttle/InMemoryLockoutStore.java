@@ -0,0 +1,321 @@
+package com.sertac.ai.throttle;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link LockoutStore} kept in this JVM as a fixed-size, open-addressing table of primitives, so
+ * an enumeration attack cannot grow the heap.
+ * <p>
+ * Each key is stored as a 64-bit salted SHA-256 prefix, with its attempt count and deadline
+ * packed into one {@code long}: 16 bits of attempts and 48 bits of epoch millis. The deadline is
+ * when the lockout ends for a locked key, and when an unlocked counter is forgotten otherwise.
+ * That is 16 bytes per slot with no per-entry objects. The table is split into independently
+ * locked segments.
+ * <p>
+ * Expiry is incremental. Expired entries read as absent and are removed when a lookup meets
+ * them. Each failure also advances a per-segment cleanup hand over a couple of slots, so no
+ * operation sweeps the whole table.
+ * <p>
+ * When a segment is full, a new key evicts the sampled entry nearest to its deadline. Unlocked
+ * counters are preferred over active lockouts, which are only evicted when the sample holds
+ * nothing else. Evictions are counted in {@code auth.lockout.memory.evictions}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.lockout.store", havingValue = "memory")
+public class InMemoryLockoutStore implements LockoutStore {
+
+    private static final int SEGMENTS = 64;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int CLEANUP_STEPS = 2;
+    private static final int PURGE_STEPS = 256;
+    private static final long EMPTY = 0L;
+    private static final int MAX_TRACKED_ATTEMPTS = 0xFFFF;
+    private static final long DEADLINE_MASK = (1L << 48) - 1;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxAttempts;
+    private final long lockoutMillis;
+    private final long counterIdleMillis;
+    private final Clock clock;
+    private final byte[] salt = new byte[16];
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(InMemoryLockoutStore::sha256);
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public InMemoryLockoutStore(@Value("${auth.lockout.max-attempts:5}") int maxAttempts,
+                                @Value("${auth.lockout.duration:PT15M}") Duration lockoutDuration,
+                                @Value("${auth.lockout.counter-idle-timeout:PT1H}") Duration counterIdleTimeout,
+                                @Value("${auth.lockout.memory.capacity:100000}") int capacity,
+                                MeterRegistry meterRegistry) {
+        this(maxAttempts, lockoutDuration, counterIdleTimeout, capacity, Clock.systemUTC());
+        Gauge.builder("auth.lockout.memory.size", this, InMemoryLockoutStore::size)
+                .description("Keys tracked by the in-memory lockout table")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.lockout.memory.evictions", evictions, LongAdder::sum)
+                .description("Entries evicted from the in-memory lockout table because it was full")
+                .register(meterRegistry);
+    }
+
+    InMemoryLockoutStore(int maxAttempts, Duration lockoutDuration, Duration counterIdleTimeout, int capacity, Clock clock) {
+        if (maxAttempts < 1 || capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Invalid lockout table sizing");
+        }
+        this.maxAttempts = Math.min(maxAttempts, MAX_TRACKED_ATTEMPTS);
+        this.lockoutMillis = lockoutDuration.toMillis();
+        this.counterIdleMillis = counterIdleTimeout.toMillis();
+        this.clock = clock;
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        new SecureRandom().nextBytes(salt);
+    }
+
+    @Override
+    public boolean isLocked(String key) {
+        long hash = hash(key);
+        long now = clock.millis();
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hash, now);
+            return slot >= 0 && attempts(segment.values[slot]) >= maxAttempts;
+        }
+    }
+
+    @Override
+    public boolean recordFailure(String key) {
+        long hash = hash(key);
+        long now = clock.millis();
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            segment.cleanUp(now, CLEANUP_STEPS);
+            int slot = segment.find(hash, now);
+            int attempts = slot >= 0 ? attempts(segment.values[slot]) : 0;
+            if (attempts >= maxAttempts) {
+                // Already locked; a racing failure does not extend the lockout
+                return false;
+            }
+            attempts++;
+            boolean locked = attempts >= maxAttempts;
+            long value = pack(attempts, now + (locked ? lockoutMillis : counterIdleMillis));
+            if (slot >= 0) {
+                segment.values[slot] = value;
+            } else {
+                segment.insert(hash, value, now);
+            }
+            return locked;
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        long hash = hash(key);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hash, clock.millis());
+            if (slot >= 0) {
+                segment.removeAt(slot);
+            }
+        }
+    }
+
+    /**
+     * Expiry already happens incrementally; this advances every segment's cleanup hand by a
+     * bounded number of slots so a quiet table also gives back expired entries.
+     */
+    @Override
+    public void purgeExpired() {
+        long now = clock.millis();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.cleanUp(now, PURGE_STEPS);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 58)];
+    }
+
+    private long hash(String key) {
+        MessageDigest digest = digests.get();
+        digest.update(salt);
+        byte[] sha = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (sha[i] & 0xFF);
+        }
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long pack(int attempts, long deadline) {
+        return ((long) attempts << 48) | (deadline & DEADLINE_MASK);
+    }
+
+    private static int attempts(long value) {
+        return (int) (value >>> 48);
+    }
+
+    private static long deadline(long value) {
+        return value & DEADLINE_MASK;
+    }
+
+    private final class Segment {
+
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+        private int hand;
+
+        Segment(int maxSize) {
+            // Keep the load factor at or below 0.75 so probe sequences stay short when full
+            int slots = Integer.highestOneBit(Math.max(4, maxSize * 4 / 3 + 1) - 1) << 1;
+            this.keys = new long[slots];
+            this.values = new long[slots];
+            this.mask = slots - 1;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Returns the slot holding {@code hash}, or -1. An expired entry met on the way is removed.
+         */
+        int find(long hash, long now) {
+            int slot = home(hash);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == hash) {
+                    if (deadline(values[slot]) > now) {
+                        return slot;
+                    }
+                    removeAt(slot);
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void insert(long hash, long value, long now) {
+            if (size >= maxSize) {
+                evict(hash, now);
+            }
+            int slot = home(hash);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = hash;
+            values[slot] = value;
+            size++;
+        }
+
+        /**
+         * Frees one slot: an expired entry if the sample has one, otherwise the unlocked counter
+         * nearest to its deadline, otherwise the lockout nearest to its end.
+         */
+        private void evict(long hash, long now) {
+            int victim = -1;
+            boolean victimLocked = true;
+            long victimDeadline = Long.MAX_VALUE;
+            int slot = home(hash);
+            int sample = Math.min(EVICTION_SAMPLE, size);
+            for (int seen = 0; seen < sample; slot = (slot + 1) & mask) {
+                if (keys[slot] == EMPTY) {
+                    continue;
+                }
+                seen++;
+                long value = values[slot];
+                if (deadline(value) <= now) {
+                    removeAt(slot);
+                    return;
+                }
+                boolean locked = attempts(value) >= maxAttempts;
+                if ((victimLocked && !locked) || (victimLocked == locked && deadline(value) < victimDeadline)) {
+                    victim = slot;
+                    victimLocked = locked;
+                    victimDeadline = deadline(value);
+                }
+            }
+            removeAt(victim);
+            evictions.increment();
+        }
+
+        /**
+         * Removes the entry at {@code slot}, shifting later entries of its probe run back so
+         * lookups never need tombstones.
+         */
+        void removeAt(int slot) {
+            int free = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (keys[next] == EMPTY) {
+                    break;
+                }
+                int home = home(keys[next]);
+                // Move the entry back unless its home lies cyclically in (free, next]
+                boolean stays = free <= next ? free < home && home <= next : free < home || home <= next;
+                if (!stays) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            keys[free] = EMPTY;
+            values[free] = 0L;
+            size--;
+        }
+
+        void cleanUp(long now, int steps) {
+            for (int i = 0; i < steps; i++) {
+                if (keys[hand] != EMPTY && deadline(values[hand]) <= now) {
+                    // A shifted entry may now occupy the hand's slot, so look at it again next time
+                    removeAt(hand);
+                } else {
+                    hand = (hand + 1) & mask;
+                }
+            }
+        }
+
+        private int home(long hash) {
+            return (int) hash & mask;
+        }
+    }
+}
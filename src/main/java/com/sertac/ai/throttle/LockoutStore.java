@@ -0,0 +1,32 @@
+package com.sertac.ai.throttle;
+
+/**
+ * Counts failed verification attempts per key and locks a key out once it reaches the configured
+ * maximum. Implementations must count atomically: of several concurrent failures that reach the
+ * limit, exactly one reports that it locked the key. Keys are canonical emails, as
+ * {@code EmailUtils.canonicalize} returns them; implementations use them as given.
+ * <p>
+ * Select the implementation with {@code auth.lockout.store}: {@code database} (the default) shares
+ * counters across every node and survives restarts; {@code memory} keeps them in this JVM and is
+ * only suitable for a single instance or tests.
+ */
+public interface LockoutStore {
+
+    boolean isLocked(String key);
+
+    /**
+     * Counts a failed attempt for {@code key}. Returns {@code true} if this attempt locked it out.
+     * Attempts made after a lockout has expired start counting from one again.
+     */
+    boolean recordFailure(String key);
+
+    /**
+     * Forgets the attempts and any lockout for {@code key}, e.g. after a successful verification.
+     */
+    void reset(String key);
+
+    /**
+     * Drops expired lockouts and counters that have seen no failures for a while.
+     */
+    void purgeExpired();
+}
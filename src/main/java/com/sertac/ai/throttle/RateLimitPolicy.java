@@ -0,0 +1,37 @@
+package com.sertac.ai.throttle;
+
+import java.time.Duration;
+
+/**
+ * Allows {@code limit} events per {@code period} on average, with up to {@code burst} events back
+ * to back. Written as {@code limit/period[,burst]}, e.g. {@code 5/PT1H,3}; the burst defaults to
+ * the limit.
+ */
+public record RateLimitPolicy(int limit, Duration period, int burst) {
+
+    public RateLimitPolicy {
+        if (limit < 1 || burst < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Invalid rate limit policy");
+        }
+    }
+
+    public static RateLimitPolicy parse(String policy) {
+        try {
+            String[] rateAndBurst = policy.trim().split(",", 2);
+            String[] limitAndPeriod = rateAndBurst[0].trim().split("/", 2);
+            int limit = Integer.parseInt(limitAndPeriod[0].trim());
+            Duration period = Duration.parse(limitAndPeriod[1].trim());
+            int burst = rateAndBurst.length > 1 ? Integer.parseInt(rateAndBurst[1].trim()) : limit;
+            return new RateLimitPolicy(limit, period, burst);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid rate limit policy '" + policy + "', expected limit/period[,burst]", e);
+        }
+    }
+
+    /**
+     * Time between events at the sustained rate.
+     */
+    long emissionIntervalNanos() {
+        return period.toNanos() / limit;
+    }
+}
@@ -0,0 +1,100 @@
+package com.sertac.ai.throttle;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sertac.ai.model.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * In-memory limits on verification emails per client IP, per recipient domain and per
+ * recipient, checked before any database or SMTP work. Policies use the
+ * {@link RateLimitPolicy} syntax:
+ * <ul>
+ * <li>{@code auth.send-throttle.ip}: {@code 20/PT1H,10}</li>
+ * <li>{@code auth.send-throttle.domain}: {@code 1000/PT1M,200}</li>
+ * <li>{@code auth.send-throttle.email}: {@code 5/PT1H,3}</li>
+ * </ul>
+ * Limits are per node. The database check for a recent active code still backs them up across
+ * the cluster, but it is only reached by requests that pass here.
+ * <p>
+ * The IP is checked first and the recipient last. A client over its own limit is therefore
+ * turned away before it can spend a victim's per-recipient allowance.
+ */
+@Component
+public class SendThrottle {
+
+    private final GcraRateLimiter byIp;
+    private final GcraRateLimiter byDomain;
+    private final GcraRateLimiter byEmail;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByDomain;
+    private final Counter rejectedByEmail;
+
+    @Autowired
+    public SendThrottle(@Value("${auth.send-throttle.ip:20/PT1H,10}") String ipPolicy,
+                        @Value("${auth.send-throttle.domain:1000/PT1M,200}") String domainPolicy,
+                        @Value("${auth.send-throttle.email:5/PT1H,3}") String emailPolicy,
+                        @Value("${auth.send-throttle.maximum-keys:100000}") long maximumKeys,
+                        MeterRegistry meterRegistry) {
+        this(RateLimitPolicy.parse(ipPolicy), RateLimitPolicy.parse(domainPolicy), RateLimitPolicy.parse(emailPolicy),
+                maximumKeys, meterRegistry, Ticker.systemTicker());
+    }
+
+    SendThrottle(RateLimitPolicy ipPolicy, RateLimitPolicy domainPolicy, RateLimitPolicy emailPolicy, long maximumKeys,
+                 Ticker ticker) {
+        this(ipPolicy, domainPolicy, emailPolicy, maximumKeys, new SimpleMeterRegistry(), ticker);
+    }
+
+    private SendThrottle(RateLimitPolicy ipPolicy, RateLimitPolicy domainPolicy, RateLimitPolicy emailPolicy,
+                         long maximumKeys, MeterRegistry meterRegistry, Ticker ticker) {
+        this.byIp = new GcraRateLimiter(ipPolicy, maximumKeys, ticker);
+        this.byDomain = new GcraRateLimiter(domainPolicy, maximumKeys, ticker);
+        this.byEmail = new GcraRateLimiter(emailPolicy, maximumKeys, ticker);
+        this.rejectedByIp = rejectedCounter(meterRegistry, "ip");
+        this.rejectedByDomain = rejectedCounter(meterRegistry, "domain");
+        this.rejectedByEmail = rejectedCounter(meterRegistry, "email");
+    }
+
+    /**
+     * Counts one verification email to {@code email} requested by {@code clientIp}. {@code email}
+     * must be canonical, so every spelling of an address shares one limit.
+     *
+     * @throws TooManyRequestsException if a limit is exhausted; it carries how long to wait
+     */
+    public void acquire(String email, String clientIp) {
+        if (clientIp != null) {
+            reject(byIp.tryAcquire(clientIp), rejectedByIp);
+        }
+        if (email == null) {
+            return;
+        }
+        int at = email.lastIndexOf('@');
+        if (at >= 0) {
+            reject(byDomain.tryAcquire(email.substring(at + 1)), rejectedByDomain);
+        }
+        reject(byEmail.tryAcquire(email), rejectedByEmail);
+    }
+
+    private static void reject(long waitNanos, Counter rejected) {
+        if (waitNanos > 0) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many verification emails requested, please try again later",
+                    Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String keyType) {
+        return Counter.builder("auth.send_throttle.rejected")
+                .description("Verification email requests rejected by the send throttle")
+                .tag("key_type", keyType)
+                .register(meterRegistry);
+    }
+}
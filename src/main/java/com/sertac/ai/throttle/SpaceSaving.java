@@ -0,0 +1,73 @@
+package com.sertac.ai.throttle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving top-k summary: tracks at most {@code capacity} keys, and a key that occurs in more
+ * than {@code 1/capacity} of the stream is guaranteed to be among them. A newcomer replaces the
+ * smallest counter and inherits its count as the error bound, so {@code count - error} is a lower
+ * bound on the true count.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid space-saving capacity");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    synchronized void offer(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, 1, 0));
+            return;
+        }
+        // Capacity is small, so a linear scan for the minimum is cheaper than maintaining a heap
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter(key, min.count + 1, min.count));
+    }
+
+    synchronized List<HeavyHitter> top(int limit) {
+        List<HeavyHitter> top = new ArrayList<>(counters.size());
+        for (Counter counter : counters.values()) {
+            top.add(new HeavyHitter(counter.key, counter.count, counter.error));
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::count).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    synchronized void clear() {
+        counters.clear();
+    }
+
+    private static final class Counter {
+        private final String key;
+        private long count;
+        private final long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
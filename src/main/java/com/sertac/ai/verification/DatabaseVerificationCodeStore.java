@@ -0,0 +1,64 @@
+package com.sertac.ai.verification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sertac.ai.model.entity.VerificationCode;
+import com.sertac.ai.model.enums.VerificationCodeStatus;
+import com.sertac.ai.repository.VerificationCodeRepository;
+
+/**
+ * {@link VerificationCodeStore} backed by the {@code verification_code} table. Issuing is a
+ * conditional update of the email's row, falling back to an insert for its first code.
+ */
+@Component
+@Transactional
+@ConditionalOnProperty(name = "auth.verification-code.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseVerificationCodeStore implements VerificationCodeStore {
+
+    private final VerificationCodeRepository verificationCodeRepository;
+    private final Duration lifetime;
+    private final Duration resendCooldown;
+
+    public DatabaseVerificationCodeStore(VerificationCodeRepository verificationCodeRepository,
+                                         @Value("${auth.verification-code.lifetime:PT5M}") Duration lifetime,
+                                         @Value("${auth.verification-code.resend-cooldown:PT5M}") Duration resendCooldown) {
+        this.verificationCodeRepository = verificationCodeRepository;
+        this.lifetime = lifetime;
+        this.resendCooldown = resendCooldown;
+    }
+
+    @Override
+    public boolean issue(String email, String code) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(lifetime);
+        if (verificationCodeRepository.reissue(email, code, VerificationCodeStatus.ACTIVE, now, expiresAt,
+                now.minus(resendCooldown)) > 0) {
+            return true;
+        }
+        // No row was updated: either this is the email's first code, or its current one is too recent
+        return verificationCodeRepository.insertIfAbsent(email, code, now, expiresAt) > 0;
+    }
+
+    @Override
+    public boolean consume(String email, String code) {
+        Optional<VerificationCode> verificationCodeOpt = verificationCodeRepository.findByEmailAndStatus(email, VerificationCodeStatus.ACTIVE);
+        if (verificationCodeOpt.isEmpty() || verificationCodeOpt.get().getExpirationTime().isBefore(LocalDateTime.now())) {
+            return false;
+        }
+
+        VerificationCode verificationCode = verificationCodeOpt.get();
+        if (!verificationCode.getCode().equals(code)) {
+            return false;
+        }
+        verificationCode.setStatus(VerificationCodeStatus.USED);
+        verificationCodeRepository.save(verificationCode);
+        return true;
+    }
+}
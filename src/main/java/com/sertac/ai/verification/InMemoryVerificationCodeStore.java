@@ -0,0 +1,95 @@
+package com.sertac.ai.verification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * {@link VerificationCodeStore} that keeps active codes in a bounded, expiring cache in this JVM,
+ * so neither issuing nor verifying a code waits on the database. Every issued and used code is
+ * handed to the {@link VerificationCodeAuditWriter}, which records it in {@code verification_code}
+ * in the background.
+ * <p>
+ * The cache is the source of truth: codes and resend cooldowns are lost on restart, and a code can
+ * only be verified on the node that issued it. When the cache is full, Caffeine evicts the codes
+ * least likely to be used, and those emails must request a new one.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.verification-code.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final Cache<String, ActiveCode> codes;
+    private final VerificationCodeAuditWriter auditWriter;
+    private final Duration lifetime;
+    private final long resendCooldownNanos;
+    private final Ticker ticker;
+
+    @Autowired
+    public InMemoryVerificationCodeStore(VerificationCodeAuditWriter auditWriter,
+                                         @Value("${auth.verification-code.lifetime:PT5M}") Duration lifetime,
+                                         @Value("${auth.verification-code.resend-cooldown:PT5M}") Duration resendCooldown,
+                                         @Value("${auth.verification-code.memory.maximum-size:100000}") long maximumSize,
+                                         MeterRegistry meterRegistry) {
+        this(auditWriter, lifetime, resendCooldown, maximumSize, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, codes, "verificationCodes");
+    }
+
+    InMemoryVerificationCodeStore(VerificationCodeAuditWriter auditWriter, Duration lifetime, Duration resendCooldown,
+                                  long maximumSize, Ticker ticker) {
+        this.codes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(lifetime)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.auditWriter = auditWriter;
+        this.lifetime = lifetime;
+        this.resendCooldownNanos = resendCooldown.toNanos();
+        this.ticker = ticker;
+    }
+
+    @Override
+    public boolean issue(String email, String code) {
+        long now = ticker.read();
+        ActiveCode issued = new ActiveCode(code, now);
+        // Expired entries read as absent, so a code past its lifetime never blocks a new one
+        ActiveCode current = codes.asMap().compute(email, (key, previous) ->
+                previous != null && now - previous.issuedAt() < resendCooldownNanos ? previous : issued);
+        if (current != issued) {
+            return false;
+        }
+        LocalDateTime issuedAt = LocalDateTime.now();
+        auditWriter.issued(email, code, issuedAt, issuedAt.plus(lifetime));
+        return true;
+    }
+
+    @Override
+    public boolean consume(String email, String code) {
+        ActiveCode current = codes.getIfPresent(email);
+        // Removing the exact entry we matched makes each code single-use under concurrent verifies
+        if (current == null || !current.code().equals(code) || !codes.asMap().remove(email, current)) {
+            return false;
+        }
+        auditWriter.used(email, code, LocalDateTime.now());
+        return true;
+    }
+
+    long size() {
+        codes.cleanUp();
+        return codes.estimatedSize();
+    }
+
+    private record ActiveCode(String code, long issuedAt) {
+    }
+}
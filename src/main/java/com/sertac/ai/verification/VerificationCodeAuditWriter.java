@@ -0,0 +1,153 @@
+package com.sertac.ai.verification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sertac.ai.model.enums.VerificationCodeStatus;
+import com.sertac.ai.repository.VerificationCodeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind audit trail for {@link InMemoryVerificationCodeStore}: issued and used codes are
+ * queued in memory and written to {@code verification_code} in batches, one transaction per batch,
+ * off the request path.
+ * <p>
+ * The queue holds at most {@code auth.verification-code.audit.queue-capacity} events. When it is
+ * full, or a batch fails, events are dropped and counted in
+ * {@code auth.verification_codes.audit{outcome}} rather than slowing down or failing requests:
+ * the table is a record, not the source of truth. Events are written in the order they were queued,
+ * and whatever is still queued is flushed on shutdown.
+ * <p>
+ * Flushes run every {@code auth.verification-code.audit.flush-interval} on a thread of their own,
+ * so a long job on the shared scheduler cannot stall the drain and let the queue fill up.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.verification-code.store", havingValue = "memory")
+public class VerificationCodeAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationCodeAuditWriter.class);
+
+    private final VerificationCodeRepository verificationCodeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final ScheduledExecutorService flusher;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public VerificationCodeAuditWriter(VerificationCodeRepository verificationCodeRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${auth.verification-code.audit.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${auth.verification-code.audit.batch-size:500}") int batchSize,
+                                       @Value("${auth.verification-code.audit.flush-interval:PT1S}") Duration flushInterval,
+                                       MeterRegistry meterRegistry) {
+        this.verificationCodeRepository = verificationCodeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "verification-code-audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.written = Counter.builder("auth.verification_codes.audit").tag("outcome", "written").register(meterRegistry);
+        this.dropped = Counter.builder("auth.verification_codes.audit").tag("outcome", "dropped").register(meterRegistry);
+        this.failed = Counter.builder("auth.verification_codes.audit").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("auth.verification_codes.audit.queued", queue, BlockingQueue::size)
+                .description("Verification code events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long delay = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flush thread, waiting for a flush in progress, and writes whatever is still queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void issued(String email, String code, LocalDateTime issuedAt, LocalDateTime expiresAt) {
+        enqueue(new AuditEvent(email, code, VerificationCodeStatus.ACTIVE, issuedAt, expiresAt));
+    }
+
+    public void used(String email, String code, LocalDateTime usedAt) {
+        enqueue(new AuditEvent(email, code, VerificationCodeStatus.USED, usedAt, null));
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Writes everything queued so far. Runs on the flush thread, never on a request thread.
+     */
+    void flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        int drained;
+        // Stop at a short batch so the next flush starts after a delay instead of spinning on a steady stream
+        do {
+            drained = queue.drainTo(batch, batchSize);
+            if (drained == 0) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::write));
+                written.increment(drained);
+            } catch (RuntimeException e) {
+                logger.warn("Dropping {} verification code audit events", drained, e);
+                failed.increment(drained);
+            }
+            batch.clear();
+        } while (drained == batchSize);
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    private void write(AuditEvent event) {
+        if (event.status() == VerificationCodeStatus.ACTIVE) {
+            verificationCodeRepository.recordIssued(event.email(), event.code(), event.at(), event.expiresAt());
+        } else {
+            verificationCodeRepository.markUsed(event.email(), event.code(), VerificationCodeStatus.ACTIVE,
+                    VerificationCodeStatus.USED, event.at());
+        }
+    }
+
+    private record AuditEvent(String email, String code, VerificationCodeStatus status, LocalDateTime at,
+                              LocalDateTime expiresAt) {
+    }
+}
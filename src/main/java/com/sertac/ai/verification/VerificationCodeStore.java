@@ -0,0 +1,27 @@
+package com.sertac.ai.verification;
+
+/**
+ * Holds the active verification code of each email. Keys are canonical emails, as
+ * {@code EmailUtils.canonicalize} returns them; the controller canonicalizes once and nothing
+ * downstream normalizes again, so a key in any other spelling is a different key.
+ * <p>
+ * Select the implementation with {@code auth.verification-code.store}: {@code database} (the
+ * default) keeps codes in the {@code verification_code} table, so any node can verify a code
+ * another node issued; {@code memory} keeps them in this JVM and records them in the table
+ * asynchronously for auditing, so it needs sticky routing between send and verify or a single
+ * instance.
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * Makes {@code code} the active code for {@code email}, replacing any previous one. Returns
+     * {@code false}, leaving the current code in place, if it was issued within the resend cooldown.
+     */
+    boolean issue(String email, String code);
+
+    /**
+     * Returns {@code true} if {@code code} is the active, unexpired code for {@code email} and uses
+     * it up. A wrong code leaves the active one in place.
+     */
+    boolean consume(String email, String code);
+}
@@ -0,0 +1,56 @@
+package com.sertac.ai.benchmark;
+
+import com.sertac.ai.email.EmailUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regex validation plus {@code trim().toLowerCase()} that {@code EmailUtils} used to do
+ * ("legacy", recompiling the pattern on each call as {@code String.matches} does) with the
+ * single-pass {@link EmailUtils#canonicalize}. {@code precompiled} isolates the cost of the regex
+ * itself. Run with {@code -prof gc} to see allocations per operation; canonical input should
+ * allocate nothing on the new path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailUtilsBenchmark {
+
+    private static final String LEGACY_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
+    private static final Pattern LEGACY_PATTERN = Pattern.compile(LEGACY_REGEX);
+
+    @Param({"first.last+tag@example.com", "  First.Last+Tag@Example.COM "})
+    public String email;
+
+    @Benchmark
+    public String legacy() {
+        return email.matches(LEGACY_REGEX) ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    @Benchmark
+    public String precompiled() {
+        return LEGACY_PATTERN.matcher(email).matches() ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        return EmailUtils.canonicalize(email);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EmailUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sertac.ai.benchmark;
+
+import com.sertac.ai.security.JwtTokenCodec;
+import com.sertac.ai.security.TestSigningKeyRings;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call key derivation and parser construction that {@code AuthService} used to do
+ * ("legacy") with the shared {@link JwtTokenCodec}. The legacy and refresh benchmarks use the same
+ * HMAC algorithm; the access benchmarks show the ES256 cost on top. Run {@link #main} from the IDE
+ * or with the test classpath on the command line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtTokenCodecBenchmark {
+
+    private static final String SECRET_KEY = "yourVeryLongAndSecureSecretKeyHere";
+    private static final String EMAIL = "test@example.com";
+
+    private JwtTokenCodec codec;
+    private String token;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        codec = new JwtTokenCodec(SECRET_KEY, TestSigningKeyRings.inMemory());
+        Date expiration = new Date(System.currentTimeMillis() + 86400000L);
+        token = codec.encodeRefreshToken(EMAIL, null, 0, new Date(), expiration);
+        accessToken = codec.encodeAccessToken(EMAIL, 0, new Date(), expiration);
+    }
+
+    @Benchmark
+    public String legacyEncode() {
+        Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .setSubject(EMAIL)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String codecEncodeRefresh() {
+        Date issuedAt = new Date();
+        return codec.encodeRefreshToken(EMAIL, null, 0, issuedAt, new Date(issuedAt.getTime() + 86400000L));
+    }
+
+    @Benchmark
+    public String codecEncodeAccess() {
+        Date issuedAt = new Date();
+        return codec.encodeAccessToken(EMAIL, 0, issuedAt, new Date(issuedAt.getTime() + 86400000L));
+    }
+
+    @Benchmark
+    public String legacyDecode() {
+        Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String codecDecodeRefresh() {
+        return codec.decodeRefreshToken(token).getSubject();
+    }
+
+    @Benchmark
+    public String codecDecodeAccess() {
+        return codec.decodeAccessToken(accessToken).getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtTokenCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.sertac.ai.benchmark;
+
+import com.sertac.ai.model.entity.VerificationLockout;
+import com.sertac.ai.repository.VerificationLockoutRepository;
+import com.sertac.ai.throttle.DatabaseLockoutStore;
+import com.sertac.ai.throttle.InMemoryLockoutStore;
+import com.sertac.ai.throttle.LockoutStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-JVM {@link InMemoryLockoutStore} with the shared {@link DatabaseLockoutStore}.
+ * The database variant runs against H2 in MySQL mode by default; pass
+ * {@code -Dlockout.jdbc.url=jdbc:mysql://...} (plus {@code lockout.jdbc.username/password}) to
+ * measure the real round trips. Keys are spread over {@link #KEYS} emails so threads mostly touch
+ * different rows; {@code hotKey} makes every thread hit one row to show lock contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LockoutStoreBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    @Param({"memory", "database"})
+    public String store;
+
+    private LockoutStore lockoutStore;
+    private ConfigurableApplicationContext context;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        if ("memory".equals(store)) {
+            lockoutStore = new InMemoryLockoutStore(Integer.MAX_VALUE, Duration.ofMinutes(15), Duration.ofHours(1),
+                    100_000, new SimpleMeterRegistry());
+        } else {
+            context = new SpringApplicationBuilder(DatabaseConfig.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=" + System.getProperty("lockout.jdbc.url",
+                                    "jdbc:h2:mem:lockouts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"),
+                            "spring.datasource.username=" + System.getProperty("lockout.jdbc.username", "sa"),
+                            "spring.datasource.password=" + System.getProperty("lockout.jdbc.password", ""),
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "auth.lockout.max-attempts=" + Integer.MAX_VALUE)
+                    .run();
+            lockoutStore = context.getBean(LockoutStore.class);
+        }
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user" + i + "@example.com";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public boolean isLocked() {
+        return lockoutStore.isLocked(randomKey());
+    }
+
+    @Benchmark
+    public boolean recordFailure() {
+        return lockoutStore.recordFailure(randomKey());
+    }
+
+    @Benchmark
+    public boolean recordFailureHotKey() {
+        return lockoutStore.recordFailure(keys[0]);
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = VerificationLockout.class)
+    @EnableJpaRepositories(basePackageClasses = VerificationLockoutRepository.class)
+    @Import(DatabaseLockoutStore.class)
+    static class DatabaseConfig {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LockoutStoreBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
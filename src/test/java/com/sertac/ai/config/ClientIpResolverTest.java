@@ -0,0 +1,66 @@
+package com.sertac.ai.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.0.2.1", "2001:db8::/32"));
+
+    @Test
+    void resolve_ShouldIgnoreForwardedHeaderFromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+
+        assertEquals("203.0.113.7", resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldSkipTrustedHopsFromTheRight() {
+        MockHttpServletRequest request = request("10.1.2.3", "198.51.100.99, 203.0.113.7, 192.0.2.1");
+
+        assertEquals("203.0.113.7", resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldReadRepeatedHeadersInOrder() {
+        MockHttpServletRequest request = request("10.1.2.3", "203.0.113.7");
+        request.addHeader(ClientIpResolver.X_FORWARDED_FOR, "10.9.9.9");
+
+        assertEquals("203.0.113.7", resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_ShouldStopAtMalformedHop() {
+        assertEquals("10.9.9.9", resolver.resolve(request("10.1.2.3", "unknown, 10.9.9.9")));
+        assertEquals("10.1.2.3", resolver.resolve(request("10.1.2.3", "evil.example.com")));
+    }
+
+    @Test
+    void resolve_ShouldMatchIpv6Ranges() {
+        assertEquals("2001:db9::1", resolver.resolve(request("2001:db8::5", "2001:db9::1")));
+    }
+
+    @Test
+    void resolve_ShouldUsePeerWhenNoProxiesAreTrusted() {
+        ClientIpResolver untrusting = new ClientIpResolver(List.of());
+
+        assertEquals("10.1.2.3", untrusting.resolve(request("10.1.2.3", "203.0.113.7")));
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("proxy.internal")));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(ClientIpResolver.X_FORWARDED_FOR, forwardedFor);
+        return request;
+    }
+}
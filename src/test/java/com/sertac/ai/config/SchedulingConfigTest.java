@@ -0,0 +1,41 @@
+package com.sertac.ai.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class, TaskSchedulingAutoConfiguration.class))
+        .withUserConfiguration(SchedulingConfig.class);
+
+    @Test
+    void maintenanceScheduler_ShouldBeSeparateFromDefaultScheduler() {
+        contextRunner
+            .withPropertyValues("auth.maintenance.pool-size=3", "spring.task.scheduling.pool.size=2")
+            .run(context -> {
+                ThreadPoolTaskScheduler taskScheduler = context.getBean("taskScheduler", ThreadPoolTaskScheduler.class);
+                ThreadPoolTaskScheduler maintenance = context.getBean(SchedulingConfig.MAINTENANCE_SCHEDULER, ThreadPoolTaskScheduler.class);
+
+                assertNotSame(taskScheduler, maintenance);
+                assertEquals(2, taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize());
+                assertEquals(3, maintenance.getScheduledThreadPoolExecutor().getCorePoolSize());
+                assertEquals("maintenance-", maintenance.getThreadNamePrefix());
+            });
+    }
+
+    @Test
+    void applicationTaskExecutor_ShouldStillBeAvailableForAsync() {
+        contextRunner.run(context -> {
+            assertSame(context.getBean("applicationTaskExecutor"), context.getBean("taskExecutor"));
+            assertInstanceOf(ThreadPoolTaskExecutor.class, context.getBean("taskExecutor"));
+        });
+    }
+}
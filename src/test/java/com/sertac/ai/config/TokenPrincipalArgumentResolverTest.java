@@ -0,0 +1,57 @@
+package com.sertac.ai.config;
+
+import com.sertac.ai.model.exception.AuthenticationException;
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenPrincipalArgumentResolverTest {
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private TokenPrincipalArgumentResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void resolveArgument_ShouldVerifyTokenOncePerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        TokenPrincipal principal = new TokenPrincipal("test@example.com", Instant.now(), Instant.now().plusSeconds(60), null);
+        when(authService.verifyAccessToken("Bearer token")).thenReturn(principal);
+
+        TokenPrincipal first = resolver.resolveArgument(null, null, webRequest, null);
+        TokenPrincipal second = resolver.resolveArgument(null, null, webRequest, null);
+
+        assertSame(principal, first);
+        assertSame(principal, second);
+        verify(authService, times(1)).verifyAccessToken(anyString());
+    }
+
+    @Test
+    void resolveArgument_ShouldPropagateAuthenticationFailure() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        when(authService.verifyAccessToken(null)).thenThrow(new AuthenticationException("Access token is missing or empty"));
+
+        assertThrows(AuthenticationException.class, () -> resolver.resolveArgument(null, null, webRequest, null));
+        assertNull(request.getAttribute(TokenPrincipalArgumentResolver.PRINCIPAL_ATTRIBUTE));
+    }
+}
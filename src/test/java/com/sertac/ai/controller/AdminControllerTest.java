@@ -0,0 +1,97 @@
+package com.sertac.ai.controller;
+
+import com.sertac.ai.model.dto.UserImportResponse;
+import com.sertac.ai.model.exception.AuthenticationException;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.model.exception.ForbiddenException;
+import com.sertac.ai.security.AdminAuthorizer;
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.service.AdminQueryService;
+import com.sertac.ai.service.PageCursor;
+import com.sertac.ai.service.UserBulkService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdminControllerTest {
+
+    @Mock
+    private UserBulkService userBulkService;
+
+    @Mock
+    private AdminQueryService adminQueryService;
+
+    private AdminController adminController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adminController = new AdminController(userBulkService, adminQueryService,
+            new AdminAuthorizer(List.of("Admin@Example.com"), false));
+    }
+
+    @Test
+    void importUsers_shouldPickFormatFromContentType() throws Exception {
+        UserImportResponse expected = new UserImportResponse();
+        when(userBulkService.importUsers(any(), eq(UserBulkService.Format.CSV))).thenReturn(expected);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("text/csv; charset=UTF-8");
+        request.setContent("a@example.com\n".getBytes());
+
+        ResponseEntity<UserImportResponse> response = adminController.importUsers(principal("admin@example.com"), request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(expected, response.getBody());
+    }
+
+    @Test
+    void importUsers_shouldRejectNonAdmins() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("application/x-ndjson");
+
+        assertThrows(ForbiddenException.class,
+            () -> adminController.importUsers(principal("user@example.com"), request));
+        assertThrows(AuthenticationException.class,
+            () -> adminController.importUsers(null, request));
+        verifyNoInteractions(userBulkService);
+    }
+
+    @Test
+    void exportUsers_shouldRejectUnknownFormat() {
+        assertThrows(BadRequestException.class,
+            () -> adminController.exportUsers(principal("admin@example.com"), "xml"));
+    }
+
+    @Test
+    void listUsers_shouldRejectOutOfRangeLimit() {
+        assertThrows(BadRequestException.class,
+            () -> adminController.listUsers(principal("admin@example.com"), null, 0));
+        assertThrows(BadRequestException.class,
+            () -> adminController.listUsers(principal("admin@example.com"), null, AdminController.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void listSessions_shouldRejectCursorFromAnotherListing() {
+        String usersCursor = PageCursor.encode(PageCursor.USERS, "42");
+
+        assertThrows(BadRequestException.class,
+            () -> adminController.listSessions(principal("admin@example.com"), 1, usersCursor, 10));
+        verifyNoInteractions(adminQueryService);
+    }
+
+    private static TokenPrincipal principal(String subject) {
+        return new TokenPrincipal(subject, Instant.EPOCH, Instant.EPOCH.plusSeconds(60), "jti");
+    }
+}
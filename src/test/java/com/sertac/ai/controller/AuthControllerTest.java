@@ -1,16 +1,30 @@
 package com.sertac.ai.controller;
 
+import com.sertac.ai.config.ClientIpResolver;
 import com.sertac.ai.model.dto.*;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.model.exception.TooManyRequestsException;
+import com.sertac.ai.model.exception.VerificationException;
 import com.sertac.ai.service.AuthService;
+import com.sertac.ai.service.TokenIntrospectionService;
+import com.sertac.ai.throttle.CredentialGuessingDetector;
+import com.sertac.ai.throttle.SendThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class AuthControllerTest {
@@ -18,40 +32,113 @@ class AuthControllerTest {
     @Mock
     private AuthService authService;
 
-    @InjectMocks
+    @Mock
+    private TokenIntrospectionService tokenIntrospectionService;
+
     private AuthController authController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        authController = new AuthController(authService, tokenIntrospectionService,
+            new ClientIpResolver(List.of("10.0.0.0/8")),
+            new SendThrottle("20/PT1H,10", "1000/PT1M,200", "5/PT1H,3", 1000, new SimpleMeterRegistry()),
+            new CredentialGuessingDetector(Duration.ofMinutes(10), 3, 5000, 1024, 4, 8, new SimpleMeterRegistry()), false);
     }
 
     @Test
     void sendVerificationCode_shouldReturnOk() {
-        SendVerificationCodeRequest request = new SendVerificationCodeRequest();
+        SendVerificationCodeRequest request = new SendVerificationCodeRequest("test@example.com");
         SendVerificationCodeResponse expectedResponse = new SendVerificationCodeResponse();
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("203.0.113.7");
         when(authService.sendVerificationCode(request)).thenReturn(expectedResponse);
 
-        ResponseEntity<SendVerificationCodeResponse> response = authController.sendVerificationCode(request);
+        ResponseEntity<SendVerificationCodeResponse> response = authController.sendVerificationCode(request, httpRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedResponse, response.getBody());
         verify(authService).sendVerificationCode(request);
     }
 
+    @Test
+    void sendVerificationCode_shouldThrottleBeforeCallingService() {
+        for (int i = 0; i < 3; i++) {
+            authController.sendVerificationCode(new SendVerificationCodeRequest("test@example.com"), new MockHttpServletRequest());
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+            () -> authController.sendVerificationCode(new SendVerificationCodeRequest("Test@Example.com"), new MockHttpServletRequest()));
+
+        assertNotNull(e.getRetryAfter());
+        verify(authService, times(3)).sendVerificationCode(any());
+    }
+
     @Test
     void verifyCode_shouldReturnOk() {
-        VerifyCodeRequest request = new VerifyCodeRequest();
+        VerifyCodeRequest request = new VerifyCodeRequest("test@example.com", "123456");
         VerifyCodeResponse expectedResponse = new VerifyCodeResponse();
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("203.0.113.7");
         when(authService.verifyCode(request)).thenReturn(expectedResponse);
 
-        ResponseEntity<VerifyCodeResponse> response = authController.verifyCode(request);
+        ResponseEntity<VerifyCodeResponse> response = authController.verifyCode(request, httpRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedResponse, response.getBody());
         verify(authService).verifyCode(request);
     }
 
+    @Test
+    void verifyCode_shouldRejectClientSprayingGuessesAcrossEmails() {
+        when(authService.verifyCode(any())).thenThrow(new VerificationException("Invalid verification code"));
+        for (int i = 0; i < 3; i++) {
+            VerifyCodeRequest guess = new VerifyCodeRequest("user" + i + "@example.com", "000000");
+            assertThrows(VerificationException.class, () -> authController.verifyCode(guess, clientRequest("203.0.113.7")));
+        }
+
+        VerifyCodeRequest next = new VerifyCodeRequest("user3@example.com", "000000");
+        assertThrows(TooManyRequestsException.class, () -> authController.verifyCode(next, clientRequest("203.0.113.7")));
+        verify(authService, times(3)).verifyCode(any());
+
+        // Another client is unaffected
+        reset(authService);
+        when(authService.verifyCode(next)).thenReturn(new VerifyCodeResponse());
+        assertEquals(HttpStatus.OK, authController.verifyCode(next, clientRequest("198.51.100.1")).getStatusCode());
+    }
+
+    @Test
+    void verifyCode_shouldCountFailuresAgainstClientAddressForwardedByTrustedProxy() {
+        when(authService.verifyCode(any())).thenThrow(new VerificationException("Invalid verification code"));
+        for (int i = 0; i < 3; i++) {
+            VerifyCodeRequest guess = new VerifyCodeRequest("user" + i + "@example.com", "000000");
+            MockHttpServletRequest httpRequest = clientRequest("10.0.0.5");
+            httpRequest.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+            assertThrows(VerificationException.class, () -> authController.verifyCode(guess, httpRequest));
+        }
+
+        VerifyCodeRequest next = new VerifyCodeRequest("user3@example.com", "000000");
+        assertThrows(TooManyRequestsException.class, () -> authController.verifyCode(next, clientRequest("203.0.113.7")));
+    }
+
+    @Test
+    void sendVerificationCode_shouldCanonicalizeEmail() {
+        SendVerificationCodeRequest request = new SendVerificationCodeRequest("  Test@Example.COM ");
+
+        authController.sendVerificationCode(request, new MockHttpServletRequest());
+
+        assertEquals("test@example.com", request.getEmail());
+        verify(authService).sendVerificationCode(request);
+    }
+
+    @Test
+    void verifyCode_shouldRejectInvalidEmailBeforeCallingService() {
+        VerifyCodeRequest request = new VerifyCodeRequest("invalid-email", "123456");
+
+        assertThrows(BadRequestException.class, () -> authController.verifyCode(request, new MockHttpServletRequest()));
+        verifyNoInteractions(authService);
+    }
+
     @Test
     void refreshToken_shouldReturnOk() {
         RefreshTokenRequest request = new RefreshTokenRequest();
@@ -64,4 +151,23 @@ class AuthControllerTest {
         assertEquals(expectedResponse, response.getBody());
         verify(authService).refreshToken(request);
     }
-}
\ No newline at end of file
+
+    @Test
+    void introspect_shouldReturnOk() {
+        IntrospectionRequest request = new IntrospectionRequest();
+        IntrospectionResponse expectedResponse = new IntrospectionResponse();
+        when(tokenIntrospectionService.introspect(request)).thenReturn(expectedResponse);
+
+        ResponseEntity<IntrospectionResponse> response = authController.introspect(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedResponse, response.getBody());
+        verify(tokenIntrospectionService).introspect(request);
+    }
+
+    private static MockHttpServletRequest clientRequest(String remoteAddr) {
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr(remoteAddr);
+        return httpRequest;
+    }
+}
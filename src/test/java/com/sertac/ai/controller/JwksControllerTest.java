@@ -0,0 +1,29 @@
+package com.sertac.ai.controller;
+
+import com.sertac.ai.model.dto.JwksResponse;
+import com.sertac.ai.security.SigningKeyRing;
+import com.sertac.ai.security.TestSigningKeyRings;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwksControllerTest {
+
+    @Test
+    void getJwks_shouldReturnCacheablePublicKeys() {
+        SigningKeyRing signingKeyRing = TestSigningKeyRings.inMemory();
+        String kid = signingKeyRing.signingKey().getKid();
+        JwksController controller = new JwksController(signingKeyRing, Duration.ofHours(1));
+
+        ResponseEntity<JwksResponse> response = controller.getJwks();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+        assertNotNull(response.getBody());
+        assertEquals(kid, response.getBody().getKeys().get(0).getKid());
+    }
+}
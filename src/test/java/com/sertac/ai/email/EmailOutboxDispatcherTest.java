@@ -0,0 +1,171 @@
+package com.sertac.ai.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.service.EmailOutboxService;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    private SmtpConnectionPool connectionPool;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dispatcher = newDispatcher(ServerSetupTest.SMTP.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        connectionPool.shutdown();
+    }
+
+    @Test
+    void drainNow_ShouldSendDueMessagesThroughSmtp() throws Exception {
+        when(emailOutboxService.claimDue(anyInt(), any(Duration.class)))
+            .thenReturn(List.of(message(1L, "a@example.com", 1), message(2L, "b@example.com", 1)))
+            .thenReturn(List.of());
+
+        dispatcher.drainNow();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Verification Code", received[0].getSubject());
+        verify(emailOutboxService).markSent(1L);
+        verify(emailOutboxService).markSent(2L);
+    }
+
+    @Test
+    void drainNow_ShouldReuseConnectionsAcrossBatches() {
+        when(emailOutboxService.claimDue(anyInt(), any(Duration.class)))
+            .thenReturn(List.of(message(1L, "a@example.com", 1), message(2L, "b@example.com", 1)))
+            .thenReturn(List.of(message(3L, "c@example.com", 1)))
+            .thenReturn(List.of(message(4L, "d@example.com", 1)));
+
+        dispatcher.drainNow();
+        dispatcher.drainNow();
+
+        assertEquals(4, greenMail.getReceivedMessages().length);
+        // Two senders share two connections, which stay open between drains
+        assertTrue(connectionPool.openCount() <= 2);
+        assertEquals(connectionPool.openCount(), connectionPool.idleCount());
+    }
+
+    @Test
+    void drainNow_ShouldKeepClaimingFullBatches() {
+        List<EmailOutbox> fullBatch = List.of(message(1L, "a@example.com", 1), message(2L, "b@example.com", 1));
+        when(emailOutboxService.claimDue(anyInt(), any(Duration.class))).thenReturn(fullBatch).thenReturn(List.of());
+
+        dispatcher.drainNow();
+
+        verify(emailOutboxService, times(2)).claimDue(eq(2), any(Duration.class));
+    }
+
+    @Test
+    void drainNow_ShouldRescheduleFailedSendWithBackoff() throws IOException {
+        useUnreachableServer();
+        when(emailOutboxService.claimDue(anyInt(), any(Duration.class)))
+            .thenReturn(List.of(message(1L, "a@example.com", 2)))
+            .thenReturn(List.of());
+
+        dispatcher.drainNow();
+
+        // Second attempt: between 30s and 60s after now
+        verify(emailOutboxService).markAttemptFailed(eq(1L), anyString(),
+            between(NOW.plusSeconds(30), NOW.plusSeconds(60)));
+        verify(emailOutboxService, never()).markSent(any());
+    }
+
+    @Test
+    void drainNow_ShouldGiveUpAfterMaxAttempts() throws IOException {
+        useUnreachableServer();
+        when(emailOutboxService.claimDue(anyInt(), any(Duration.class)))
+            .thenReturn(List.of(message(1L, "a@example.com", 3)))
+            .thenReturn(List.of());
+
+        dispatcher.drainNow();
+
+        verify(emailOutboxService).markAttemptFailed(eq(1L), anyString(), isNull());
+    }
+
+    @Test
+    void backoff_ShouldGrowExponentiallyUpToCap() {
+        for (int attempts = 1; attempts <= 10; attempts++) {
+            Duration ceiling = Duration.ofSeconds(30L << (attempts - 1));
+            if (ceiling.compareTo(Duration.ofMinutes(10)) > 0) {
+                ceiling = Duration.ofMinutes(10);
+            }
+            Duration backoff = dispatcher.backoff(attempts);
+            assertTrue(backoff.compareTo(ceiling.dividedBy(2)) >= 0 && backoff.compareTo(ceiling) <= 0,
+                "attempt " + attempts + ": " + backoff);
+        }
+    }
+
+    private EmailOutboxDispatcher newDispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        connectionPool = new SmtpConnectionPool(mailSender, 2, 100, Duration.ofMinutes(1), Duration.ofSeconds(5),
+            Duration.ofSeconds(5), Ticker.systemTicker());
+        return new EmailOutboxDispatcher(emailOutboxService, connectionPool, 2, 2, 3, Duration.ofMinutes(5),
+            Duration.ofSeconds(30), Duration.ofMinutes(10), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void useUnreachableServer() throws IOException {
+        int unusedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unusedPort = socket.getLocalPort();
+        }
+        tearDown();
+        dispatcher = newDispatcher(unusedPort);
+    }
+
+    private static Instant between(Instant from, Instant to) {
+        return argThat(at -> at != null && !at.isBefore(from) && !at.isAfter(to));
+    }
+
+    private static EmailOutbox message(Long id, String recipient, int attempts) {
+        EmailOutbox message = new EmailOutbox(recipient, "Verification Code", "Your verification code is: 123456", NOW);
+        message.setId(id);
+        message.setAttempts(attempts);
+        return message;
+    }
+}
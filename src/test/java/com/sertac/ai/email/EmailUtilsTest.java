@@ -0,0 +1,54 @@
+package com.sertac.ai.email;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailUtilsTest {
+
+    @Test
+    void canonicalize_ShouldReturnCanonicalInputItself() {
+        String email = "test.user+tag@example.com";
+
+        assertSame(email, EmailUtils.canonicalize(email));
+    }
+
+    @Test
+    void canonicalize_ShouldTrimAndLowerCase() {
+        assertEquals("test@example.com", EmailUtils.canonicalize("  Test@Example.COM\t"));
+        assertEquals("test@example.com", EmailUtils.canonicalize(" test@example.com "));
+        assertEquals("user@bücher.de", EmailUtils.canonicalize("User@Bücher.DE"));
+    }
+
+    @Test
+    void canonicalize_ShouldRejectInvalidAddresses() {
+        assertNull(EmailUtils.canonicalize(null));
+        assertNull(EmailUtils.canonicalize(""));
+        assertNull(EmailUtils.canonicalize("invalid-email"));
+        assertNull(EmailUtils.canonicalize("@example.com"));
+        assertNull(EmailUtils.canonicalize("test@"));
+        assertNull(EmailUtils.canonicalize("test@exa@mple.com"));
+        assertNull(EmailUtils.canonicalize("te st@example.com"));
+        assertNull(EmailUtils.canonicalize("test@example..com"));
+        assertNull(EmailUtils.canonicalize("test@.example.com"));
+        assertNull(EmailUtils.canonicalize("test@example.com."));
+        assertNull(EmailUtils.canonicalize("test@exa_mple.com"));
+    }
+
+    @Test
+    void canonicalize_ShouldApplyGmailRulesOnlyWhenAsked() {
+        assertEquals("first.last+news@gmail.com", EmailUtils.canonicalize("First.Last+news@Gmail.com"));
+        assertEquals("firstlast@gmail.com", EmailUtils.canonicalize("First.Last+news@Gmail.com", true));
+        assertEquals("firstlast@gmail.com", EmailUtils.canonicalize("firstlast@googlemail.com", true));
+        assertEquals("first.last@example.com", EmailUtils.canonicalize("first.last@example.com", true));
+        assertNull(EmailUtils.canonicalize("+news@gmail.com", true));
+    }
+
+    @Test
+    void isValidEmail_ShouldMatchCanonicalize() {
+        assertTrue(EmailUtils.isValidEmail("test@example.com"));
+        assertTrue(EmailUtils.isValidEmail("Test@Example.com"));
+        assertFalse(EmailUtils.isValidEmail("invalid-email"));
+        assertFalse(EmailUtils.isValidEmail(null));
+    }
+}
@@ -0,0 +1,116 @@
+package com.sertac.ai.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sertac.ai.email.SmtpConnectionPool.SmtpConnection;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpConnectionPoolTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SmtpConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        pool = new SmtpConnectionPool(mailSender, 2, 3, Duration.ofSeconds(30), Duration.ofSeconds(5),
+            Duration.ofMillis(100), nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void borrow_ShouldReuseReleasedConnection() throws Exception {
+        SmtpConnection first = pool.borrow();
+        first.send(message("a@example.com"));
+        pool.release(first);
+
+        SmtpConnection second = pool.borrow();
+        second.send(message("b@example.com"));
+        pool.release(second);
+
+        assertSame(first, second);
+        assertEquals(1, pool.openCount());
+        assertEquals(2, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void release_ShouldCloseConnectionAfterMessageQuota() throws Exception {
+        SmtpConnection connection = pool.borrow();
+        for (int i = 0; i < 3; i++) {
+            connection.send(message("user" + i + "@example.com"));
+        }
+        pool.release(connection);
+
+        assertEquals(0, pool.openCount());
+        assertNotSame(connection, borrowAndRelease());
+    }
+
+    @Test
+    void evictIdle_ShouldCloseConnectionsIdlePastLimit() throws Exception {
+        borrowAndRelease();
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        pool.evictIdle();
+
+        assertEquals(0, pool.idleCount());
+        assertEquals(0, pool.openCount());
+    }
+
+    @Test
+    void borrow_ShouldValidateConnectionIdleBeyondThreshold() throws Exception {
+        SmtpConnection connection = borrowAndRelease();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Still connected, so the NOOP check passes and the connection is reused
+        assertSame(connection, borrowAndRelease());
+    }
+
+    @Test
+    void borrow_ShouldTimeOutWhenPoolIsExhausted() throws Exception {
+        SmtpConnection first = pool.borrow();
+        SmtpConnection second = pool.borrow();
+
+        assertThrows(MessagingException.class, pool::borrow);
+
+        pool.release(first);
+        pool.release(second);
+        assertEquals(2, pool.idleCount());
+    }
+
+    private SmtpConnection borrowAndRelease() throws MessagingException {
+        SmtpConnection connection = pool.borrow();
+        pool.release(connection);
+        return connection;
+    }
+
+    private MimeMessage message(String recipient) throws MessagingException {
+        MimeMessage message = pool.createMimeMessage();
+        message.setFrom(new InternetAddress("noreply@example.com"));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(recipient));
+        message.setSubject("Verification Code");
+        message.setText("Your verification code is: 123456");
+        return message;
+    }
+}
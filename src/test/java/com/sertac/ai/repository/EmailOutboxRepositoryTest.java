@@ -0,0 +1,83 @@
+package com.sertac.ai.repository;
+
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.model.enums.EmailOutboxStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the outbox retention statements against H2 in MySQL mode, which accepts
+ * {@code DELETE ... LIMIT}.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void markSent_ShouldClearBody() {
+        EmailOutbox message = emailOutboxRepository.save(new EmailOutbox("test@example.com", "Subject", "Code: 123456", NOW));
+
+        inTransaction(() -> emailOutboxRepository.markSent(message.getId(), EmailOutboxStatus.SENT, NOW.plusSeconds(5)));
+
+        EmailOutbox sent = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals(EmailOutboxStatus.SENT, sent.getStatus());
+        assertEquals("", sent.getBody());
+        assertEquals(NOW.plusSeconds(5), sent.getNextAttemptAt());
+    }
+
+    @Test
+    void deleteFinishedBatch_ShouldKeepPendingAndRecentMessages() {
+        Instant old = NOW.minus(Duration.ofDays(2));
+        EmailOutbox oldSent = emailOutboxRepository.save(new EmailOutbox("a@example.com", "Subject", "Body", old));
+        EmailOutbox oldFailed = emailOutboxRepository.save(new EmailOutbox("b@example.com", "Subject", "Body", old));
+        EmailOutbox oldPending = emailOutboxRepository.save(new EmailOutbox("c@example.com", "Subject", "Body", old));
+        EmailOutbox recentSent = emailOutboxRepository.save(new EmailOutbox("d@example.com", "Subject", "Body", NOW));
+        inTransaction(() -> {
+            emailOutboxRepository.markSent(oldSent.getId(), EmailOutboxStatus.SENT, old);
+            emailOutboxRepository.markAttemptFailed(oldFailed.getId(), EmailOutboxStatus.FAILED, old, "Rejected");
+            return emailOutboxRepository.markSent(recentSent.getId(), EmailOutboxStatus.SENT, NOW);
+        });
+
+        assertEquals(1, emailOutboxRepository.deleteFinishedBatch(NOW.minus(Duration.ofDays(1)), 1));
+        assertEquals(1, emailOutboxRepository.deleteFinishedBatch(NOW.minus(Duration.ofDays(1)), 1));
+        assertEquals(0, emailOutboxRepository.deleteFinishedBatch(NOW.minus(Duration.ofDays(1)), 1));
+
+        List<Long> remaining = emailOutboxRepository.findAll().stream().map(EmailOutbox::getId).sorted().toList();
+        assertEquals(List.of(oldPending.getId(), recentSent.getId()), remaining);
+    }
+
+    private void inTransaction(Supplier<Integer> work) {
+        new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
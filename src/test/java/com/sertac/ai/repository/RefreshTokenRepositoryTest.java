@@ -0,0 +1,94 @@
+package com.sertac.ai.repository;
+
+import com.sertac.ai.model.entity.RefreshToken;
+import com.sertac.ai.model.enums.RefreshTokenStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races rotations of one refresh token against H2 in MySQL mode, each in its own transaction, so
+ * the conditional update really contends for the row lock.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:refresh;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void compareAndSetStatus_ShouldLetExactlyOneConcurrentCallerWin() throws Exception {
+        Date now = new Date();
+        refreshTokenRepository.save(new RefreshToken("token-1", "test@example.com", 0, "hash",
+            new Date(now.getTime() + 3600000)));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> refreshTokenRepository.compareAndSetStatus(
+                        "token-1", "hash", RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED, now));
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Integer> result : results) {
+                int updated = result.get();
+                assertTrue(updated == 0 || updated == 1);
+                winners += updated;
+            }
+            assertEquals(1, winners);
+            assertEquals(RefreshTokenStatus.ROTATED, refreshTokenRepository.findById("token-1").orElseThrow().getStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void compareAndSetStatus_ShouldRejectWrongHash() {
+        Date now = new Date();
+        refreshTokenRepository.save(new RefreshToken("token-1", "test@example.com", 0, "hash",
+            new Date(now.getTime() + 3600000)));
+
+        int updated = new TransactionTemplate(transactionManager).execute(status -> refreshTokenRepository.compareAndSetStatus(
+            "token-1", "other", RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED, now));
+
+        assertEquals(0, updated);
+        assertEquals(RefreshTokenStatus.ACTIVE, refreshTokenRepository.findById("token-1").orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,29 @@
+package com.sertac.ai.security;
+
+import com.sertac.ai.model.exception.ForbiddenException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminAuthorizerTest {
+
+    @Test
+    void requireAdmin_ShouldMatchCanonicalSubjectAgainstConfiguredSpelling() {
+        AdminAuthorizer authorizer = new AdminAuthorizer(List.of(" Admin.Ops+alerts@GoogleMail.com ", ""), true);
+
+        assertDoesNotThrow(() -> authorizer.requireAdmin(principal("adminops@gmail.com")));
+        assertThrows(ForbiddenException.class, () -> authorizer.requireAdmin(principal("user@gmail.com")));
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidEmail() {
+        assertThrows(IllegalArgumentException.class, () -> new AdminAuthorizer(List.of("not an email"), false));
+    }
+
+    private static TokenPrincipal principal(String subject) {
+        return new TokenPrincipal(subject, Instant.EPOCH, Instant.EPOCH.plusSeconds(60), "jti");
+    }
+}
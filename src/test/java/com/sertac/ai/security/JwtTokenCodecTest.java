@@ -0,0 +1,174 @@
+package com.sertac.ai.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenCodecTest {
+
+    private static final String SECRET_KEY = "yourVeryLongAndSecureSecretKeyHere";
+
+    private final SigningKeyRing signingKeyRing = TestSigningKeyRings.inMemory();
+    private final JwtTokenCodec codec = new JwtTokenCodec(SECRET_KEY, signingKeyRing);
+
+    @Test
+    void encodeRefreshToken_ShouldProduceTokenReadableByJjwt() {
+        Date issuedAt = new Date();
+        Date expiration = new Date(issuedAt.getTime() + 3600000);
+
+        String token = codec.encodeRefreshToken("test@example.com", "token-id", 0, issuedAt, expiration);
+
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        assertEquals("test@example.com", claims.getSubject());
+        assertEquals("token-id", claims.getId());
+        assertEquals(issuedAt.getTime() / 1000, claims.getIssuedAt().getTime() / 1000);
+        assertEquals(expiration.getTime() / 1000, claims.getExpiration().getTime() / 1000);
+    }
+
+    @Test
+    void decodeRefreshToken_ShouldAcceptTokenSignedByJjwt() {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals("test@example.com", codec.decodeRefreshToken(token).getSubject());
+    }
+
+    @Test
+    void encodeRefreshToken_ShouldEscapeSubject() {
+        String subject = "quote\"back\\slash";
+        String token = codec.encodeRefreshToken(subject, null, 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        assertEquals(subject, codec.decodeRefreshToken(token).getSubject());
+        assertNull(codec.decodeRefreshToken(token).getId());
+    }
+
+    @Test
+    void decodeRefreshToken_ShouldRejectTamperedSignature() {
+        String token = codec.encodeRefreshToken("test@example.com", null, 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> codec.decodeRefreshToken(tampered));
+    }
+
+    @Test
+    void decodeRefreshToken_ShouldRejectTokenSignedWithAnotherKey() {
+        JwtTokenCodec other = new JwtTokenCodec("anotherVeryLongAndSecureSecretKeyValue", TestSigningKeyRings.inMemory());
+        String token = other.encodeRefreshToken("test@example.com", null, 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        assertThrows(JwtException.class, () -> codec.decodeRefreshToken(token));
+    }
+
+    @Test
+    void decodeRefreshToken_ShouldRejectExpiredToken() {
+        String token = codec.encodeRefreshToken("test@example.com", null, 0,
+                new Date(System.currentTimeMillis() - 7200000), new Date(System.currentTimeMillis() - 3600000));
+
+        assertThrows(ExpiredJwtException.class, () -> codec.decodeRefreshToken(token));
+    }
+
+    @Test
+    void encodeRefreshToken_ShouldBeSafeAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String subject = "user" + i + "@example.com";
+                results.add(executor.submit(() -> {
+                    Date expiration = new Date(System.currentTimeMillis() + 3600000);
+                    String refreshToken = codec.encodeRefreshToken(subject, null, 0, new Date(), expiration);
+                    String accessToken = codec.encodeAccessToken(subject, 0, new Date(), expiration);
+                    return subject.equals(codec.decodeRefreshToken(refreshToken).getSubject())
+                            && subject.equals(codec.decodeAccessToken(accessToken).getSubject());
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodeAccessToken_ShouldProduceEs256TokenWithKid() {
+        String token = codec.encodeAccessToken("test@example.com", 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        String kid = signingKeyRing.signingKey().getKid();
+        Jws<Claims> jws = Jwts.parserBuilder()
+                .setSigningKey(signingKeyRing.verificationKey(kid))
+                .build()
+                .parseClaimsJws(token);
+        assertEquals("ES256", jws.getHeader().getAlgorithm());
+        assertEquals(kid, jws.getHeader().getKeyId());
+        assertEquals("test@example.com", jws.getBody().getSubject());
+        assertEquals("test@example.com", codec.decodeAccessToken(token).getSubject());
+    }
+
+    @Test
+    void encodeTokens_ShouldCarryEpoch() {
+        Date expiration = new Date(System.currentTimeMillis() + 3600000);
+
+        String accessToken = codec.encodeAccessToken("test@example.com", 7, new Date(), expiration);
+        String refreshToken = codec.encodeRefreshToken("test@example.com", "token-id", 7, new Date(), expiration);
+
+        assertEquals(7, JwtTokenCodec.epochOf(codec.decodeAccessToken(accessToken)));
+        assertEquals(7, TokenPrincipal.from(codec.decodeAccessToken(accessToken)).getEpoch());
+        assertEquals(7, JwtTokenCodec.epochOf(codec.decodeRefreshToken(refreshToken)));
+    }
+
+    @Test
+    void epochOf_ShouldDefaultToZeroForTokensWithoutClaim() {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals(0, JwtTokenCodec.epochOf(codec.decodeRefreshToken(token)));
+    }
+
+    @Test
+    void decodeAccessToken_ShouldRejectRefreshToken() {
+        String refreshToken = codec.encodeRefreshToken("test@example.com", "token-id", 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        assertThrows(JwtException.class, () -> codec.decodeAccessToken(refreshToken));
+    }
+
+    @Test
+    void decodeRefreshToken_ShouldRejectAccessToken() {
+        String accessToken = codec.encodeAccessToken("test@example.com", 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        // jjwt reports the EC/HMAC key mismatch as either a JwtException or an IllegalArgumentException
+        assertThrows(RuntimeException.class, () -> codec.decodeRefreshToken(accessToken));
+    }
+
+    @Test
+    void decodeAccessToken_ShouldRejectTokenFromAnotherKeyRing() {
+        JwtTokenCodec other = new JwtTokenCodec(SECRET_KEY, TestSigningKeyRings.inMemory());
+        String token = other.encodeAccessToken("test@example.com", 0, new Date(), new Date(System.currentTimeMillis() + 3600000));
+
+        assertThrows(JwtException.class, () -> codec.decodeAccessToken(token));
+    }
+}
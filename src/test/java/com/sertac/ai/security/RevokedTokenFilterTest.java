@@ -0,0 +1,66 @@
+package com.sertac.ai.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevokedTokenFilterTest {
+
+    private final RevokedTokenFilter filter = new RevokedTokenFilter(10_000, 0.01, 100);
+
+    @Test
+    void mightContain_ShouldReportEverythingUntilLoaded() {
+        assertFalse(filter.isLoaded());
+        assertTrue(filter.mightContain("tokenId"));
+
+        filter.rebuild(Stream.empty());
+
+        assertFalse(filter.mightContain("tokenId"));
+    }
+
+    @Test
+    void mightContain_ShouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        String[] revoked = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+        filter.rebuild(Stream.of(revoked));
+
+        for (String tokenId : revoked) {
+            assertTrue(filter.mightContain(tokenId));
+        }
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void sizing_ShouldMatchBloomFormula() {
+        RevokedTokenFilter large = new RevokedTokenFilter(10_000_000, 0.01, 100);
+
+        // 10M ids at 1% need ~95.9M bits, i.e. about 11.4 MiB, with 7 hash functions
+        assertEquals(7, large.hashFunctions());
+        assertEquals(11.4, large.sizeInBytes() / (1024.0 * 1024.0), 0.1);
+    }
+
+    @Test
+    void rebuild_ShouldDropIdsMissingFromSource() {
+        filter.rebuild(Stream.of("expired"));
+        filter.rebuild(Stream.of("revoked"));
+
+        assertTrue(filter.mightContain("revoked"));
+        assertFalse(filter.mightContain("expired"));
+    }
+
+    @Test
+    void add_ShouldSurviveConcurrentRebuild() {
+        filter.rebuild(Stream.of("revoked"));
+        // The source stream runs inside rebuild, so ids added while it is read hit both filters
+        filter.rebuild(Stream.of("revoked").peek(id -> filter.add("added-during-rebuild")));
+
+        assertTrue(filter.mightContain("added-during-rebuild"));
+        assertTrue(filter.isConfirmed("added-during-rebuild"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.sertac.ai.security;
+
+import com.sertac.ai.model.dto.JwkResponse;
+import com.sertac.ai.model.entity.SigningKey;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyRingTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final List<SigningKey> store = new CopyOnWriteArrayList<>();
+    private final SigningKeyRing ring = TestSigningKeyRings.inMemory(store, clock);
+
+    @Test
+    void signingKey_ShouldCreateKeyOnFirstUse() {
+        SigningKeyRing.ActiveKey key = ring.signingKey();
+
+        assertEquals(1, store.size());
+        assertEquals(store.get(0).getKid(), key.getKid());
+        assertNotNull(ring.verificationKey(key.getKid()));
+        assertEquals(1, ring.jwks().getKeys().size());
+    }
+
+    @Test
+    void signingKey_ShouldReuseActiveKey() {
+        String first = ring.signingKey().getKid();
+        clock.advance(Duration.ofDays(1));
+
+        assertEquals(first, ring.signingKey().getKid());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void signingKey_ShouldPublishSuccessorBeforeUsingIt() {
+        String first = ring.signingKey().getKid();
+
+        clock.advance(Duration.ofDays(30).minusHours(1));
+        assertEquals(first, ring.signingKey().getKid());
+        assertEquals(2, store.size());
+        assertEquals(2, ring.jwks().getKeys().size());
+
+        clock.advance(Duration.ofHours(2));
+        String second = ring.signingKey().getKid();
+        assertNotEquals(first, second);
+        assertEquals(store.get(1).getKid(), second);
+    }
+
+    @Test
+    void verificationKey_ShouldAcceptRetiredKeyUntilRetentionEnds() {
+        String first = ring.signingKey().getKid();
+
+        clock.advance(Duration.ofDays(31));
+        ring.signingKey();
+        assertNotNull(ring.verificationKey(first));
+
+        clock.advance(Duration.ofDays(1).plusMinutes(1));
+        assertThrows(SignatureException.class, () -> ring.verificationKey(first));
+    }
+
+    @Test
+    void verificationKey_ShouldPickUpKeysCreatedByOtherNodes() {
+        ring.jwks();
+        SigningKeyRing otherNode = TestSigningKeyRings.inMemory(store, clock);
+        String kid = otherNode.signingKey().getKid();
+
+        clock.advance(Duration.ofSeconds(11));
+
+        assertNotNull(ring.verificationKey(kid));
+    }
+
+    @Test
+    void verificationKey_ShouldRejectUnknownKid() {
+        ring.signingKey();
+
+        assertThrows(SignatureException.class, () -> ring.verificationKey("unknown"));
+        assertThrows(SignatureException.class, () -> ring.verificationKey(null));
+    }
+
+    @Test
+    void jwks_ShouldExposeP256Coordinates() {
+        String kid = ring.signingKey().getKid();
+
+        JwkResponse jwk = ring.jwks().getKeys().get(0);
+        assertEquals(kid, jwk.getKid());
+        assertEquals("EC", jwk.getKty());
+        assertEquals("P-256", jwk.getCrv());
+        assertEquals("ES256", jwk.getAlg());
+        assertEquals(43, jwk.getX().length());
+        assertEquals(43, jwk.getY().length());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.sertac.ai.security;
+
+import com.sertac.ai.model.entity.SigningKey;
+import com.sertac.ai.repository.SigningKeyRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds {@link SigningKeyRing}s backed by an in-memory list instead of the database.
+ */
+public final class TestSigningKeyRings {
+
+    private TestSigningKeyRings() {
+    }
+
+    public static SigningKeyRing inMemory() {
+        return inMemory(new CopyOnWriteArrayList<>(), Clock.systemUTC());
+    }
+
+    static SigningKeyRing inMemory(List<SigningKey> store, Clock clock) {
+        return new SigningKeyRing(repository(store), Duration.ofDays(30), Duration.ofHours(2),
+                Duration.ofDays(2), Duration.ofMinutes(5), clock);
+    }
+
+    static SigningKeyRepository repository(List<SigningKey> store) {
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            SigningKey key = invocation.getArgument(0);
+            store.add(key);
+            return key;
+        });
+        when(repository.findByExpiresAtAfter(any(Instant.class))).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(0);
+            return store.stream().filter(key -> key.getExpiresAt().isAfter(now)).toList();
+        });
+        return repository;
+    }
+}
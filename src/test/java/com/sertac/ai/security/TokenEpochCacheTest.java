@@ -0,0 +1,46 @@
+package com.sertac.ai.security;
+
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
+import com.sertac.ai.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenEpochCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenEpochCache cache = new TokenEpochCache(userRepository, 100, Duration.ofSeconds(30), nanos::get);
+
+    @Test
+    void current_ShouldQueryOncePerTtl() {
+        when(userRepository.findTokenEpochByEmail("test@example.com")).thenReturn(2, 3);
+
+        assertEquals(2, cache.current("test@example.com"));
+        assertEquals(2, cache.current("test@example.com"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertEquals(3, cache.current("test@example.com"));
+
+        verify(userRepository, times(2)).findTokenEpochByEmail("test@example.com");
+    }
+
+    @Test
+    void current_ShouldDefaultToZeroForUnknownUser() {
+        assertEquals(0, cache.current("unknown@example.com"));
+    }
+
+    @Test
+    void onTokensRevoked_ShouldReloadEpoch() {
+        when(userRepository.findTokenEpochByEmail("test@example.com")).thenReturn(0, 1);
+
+        assertEquals(0, cache.current("test@example.com"));
+        cache.onTokensRevoked(new UserTokensRevokedEvent("test@example.com"));
+
+        assertEquals(1, cache.current("test@example.com"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.sertac.ai.security;
+
+import com.sertac.ai.model.exception.AuthenticationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, Duration.ofHours(1), nanos::get);
+
+    @Test
+    void get_ShouldVerifyOnlyOnFirstAccess() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenPrincipal> verifier = countingVerifier(verifications, Duration.ofHours(24));
+
+        TokenPrincipal first = cache.get("token", verifier);
+        TokenPrincipal second = cache.get("token", verifier);
+
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void get_ShouldNotOutliveTokenExpiry() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenPrincipal> verifier = countingVerifier(verifications, Duration.ofSeconds(30));
+
+        cache.get("token", verifier);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_ShouldNotOutliveMaxTtl() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenPrincipal> verifier = countingVerifier(verifications, Duration.ofHours(24));
+
+        cache.get("token", verifier);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(61));
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_ShouldKeepNonAsciiTokensApart() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenPrincipal> verifier = countingVerifier(verifications, Duration.ofHours(24));
+
+        cache.get("token\u00e9", verifier);
+        cache.get("token\u00e8", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailures() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenPrincipal> verifier = token -> {
+            verifications.incrementAndGet();
+            throw new AuthenticationException("Invalid token");
+        };
+
+        assertThrows(AuthenticationException.class, () -> cache.get("token", verifier));
+        assertThrows(AuthenticationException.class, () -> cache.get("token", verifier));
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_ShouldStayWithinMaximumSize() {
+        VerifiedTokenCache small = new VerifiedTokenCache(10, Duration.ofHours(1), nanos::get);
+        Function<String, TokenPrincipal> verifier = countingVerifier(new AtomicInteger(), Duration.ofHours(24));
+
+        for (int i = 0; i < 100; i++) {
+            small.get("token" + i, verifier);
+        }
+        small.cleanUp();
+
+        assertTrue(small.size() <= 10);
+        assertTrue(small.stats().evictionCount() >= 90);
+    }
+
+    private static Function<String, TokenPrincipal> countingVerifier(AtomicInteger counter, Duration lifetime) {
+        return token -> {
+            counter.incrementAndGet();
+            Instant now = Instant.now();
+            return new TokenPrincipal("test@example.com", now, now.plus(lifetime), null);
+        };
+    }
+}
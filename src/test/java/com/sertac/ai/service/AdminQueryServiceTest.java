@@ -0,0 +1,133 @@
+package com.sertac.ai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sertac.ai.model.entity.RefreshToken;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.model.enums.RefreshTokenStatus;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.model.exception.NotFoundException;
+import com.sertac.ai.repository.RefreshTokenRepository;
+import com.sertac.ai.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:admin;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdminQueryServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private AdminQueryService adminQueryService;
+
+    @BeforeEach
+    void setUp() {
+        adminQueryService = new AdminQueryService(userRepository, refreshTokenRepository, transactionManager,
+            objectMapper, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void writeUsers_ShouldPageThroughEveryUserOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(new User("user" + i + "@example.com"));
+        }
+
+        List<String> emails = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            adminQueryService.writeUsers(PageCursor.decodeLong(PageCursor.USERS, cursor), 2, output);
+            JsonNode page = objectMapper.readTree(output.toByteArray());
+            page.get("items").forEach(item -> emails.add(item.get("email").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("user0@example.com", "user1@example.com", "user2@example.com",
+            "user3@example.com", "user4@example.com"), emails);
+    }
+
+    @Test
+    void writeSessions_ShouldListOnlyActiveSessionsOfCurrentEpoch() throws Exception {
+        User user = new User("test@example.com");
+        user.setTokenEpoch(1);
+        user = userRepository.save(user);
+        Date future = Date.from(NOW.plusSeconds(3600));
+        refreshTokenRepository.save(new RefreshToken("a", user.getEmail(), 1, "hash", future));
+        refreshTokenRepository.save(new RefreshToken("b", user.getEmail(), 0, "hash", future));
+        refreshTokenRepository.save(new RefreshToken("c", user.getEmail(), 1, "hash", Date.from(NOW.minusSeconds(1))));
+        RefreshToken revoked = new RefreshToken("d", user.getEmail(), 1, "hash", future);
+        revoked.setStatus(RefreshTokenStatus.REVOKED);
+        refreshTokenRepository.save(revoked);
+        refreshTokenRepository.save(new RefreshToken("e", user.getEmail(), 2, "hash", future));
+        refreshTokenRepository.save(new RefreshToken("f", "other@example.com", 1, "hash", future));
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        adminQueryService.writeSessions(user, null, 1, first);
+        JsonNode page = objectMapper.readTree(first.toByteArray());
+        assertEquals("a", page.get("items").get(0).get("tokenId").asText());
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        String after = PageCursor.decode(PageCursor.SESSIONS, page.get("nextCursor").asText());
+        adminQueryService.writeSessions(user, after, 10, second);
+        page = objectMapper.readTree(second.toByteArray());
+        assertEquals(1, page.get("items").size());
+        assertEquals("e", page.get("items").get(0).get("tokenId").asText());
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void findUser_ShouldRejectUnknownId() {
+        assertThrows(NotFoundException.class, () -> adminQueryService.findUser(-1));
+    }
+
+    @Test
+    void pageCursor_ShouldRoundTripAndRejectForeignCursors() {
+        String cursor = PageCursor.encode(PageCursor.SESSIONS, "token-1");
+
+        assertEquals("token-1", PageCursor.decode(PageCursor.SESSIONS, cursor));
+        assertNull(PageCursor.decode(PageCursor.SESSIONS, null));
+        assertEquals(0, PageCursor.decodeLong(PageCursor.USERS, ""));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(PageCursor.USERS, cursor));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(PageCursor.USERS, "not base64!"));
+    }
+}
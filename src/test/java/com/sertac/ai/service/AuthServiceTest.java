@@ -6,34 +6,45 @@ import com.sertac.ai.model.dto.SendVerificationCodeRequest;
 import com.sertac.ai.model.dto.SendVerificationCodeResponse;
 import com.sertac.ai.model.dto.VerifyCodeRequest;
 import com.sertac.ai.model.dto.VerifyCodeResponse;
-import com.sertac.ai.model.entity.RefreshToken;
 import com.sertac.ai.model.entity.User;
-import com.sertac.ai.model.entity.VerificationCode;
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
 import com.sertac.ai.model.enums.RefreshTokenStatus;
 import com.sertac.ai.model.exception.AuthenticationException;
 import com.sertac.ai.model.exception.TooManyRequestsException;
 import com.sertac.ai.model.exception.VerificationException;
+import com.sertac.ai.security.JwtTokenCodec;
+import com.sertac.ai.security.TestSigningKeyRings;
+import com.sertac.ai.security.TokenEpochCache;
+import com.sertac.ai.security.TokenPrincipal;
+import com.sertac.ai.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.ArgumentCaptor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 class AuthServiceTest {
 
@@ -41,7 +52,7 @@ class AuthServiceTest {
     private VerificationCodeService verificationCodeService;
 
     @Mock
-    private JavaMailSender emailSender;
+    private EmailOutboxService emailOutboxService;
 
     @Mock
     private UserService userService;
@@ -49,13 +60,21 @@ class AuthServiceTest {
     @Mock
     private RefreshTokenService refreshTokenService;
 
+    @Mock
+    private TokenEpochCache tokenEpochCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private static final String SECRET_KEY = "yourVeryLongAndSecureSecretKeyHere";
     private AuthService authService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        authService = new AuthService(verificationCodeService, emailSender, SECRET_KEY,userService,refreshTokenService);
+        authService = newAuthService(Duration.ZERO);
+        when(userService.findOrCreateUser(anyString())).thenAnswer(invocation -> new User(invocation.getArgument(0)));
+        when(verificationCodeService.issueVerificationCode(anyString(), anyString())).thenReturn(true);
     }
 
     @Test
@@ -69,18 +88,12 @@ class AuthServiceTest {
         authService.sendVerificationCode(request);
 
         verify(verificationCodeService).generateVerificationCode();
-        verify(verificationCodeService).saveVerificationCode(any(VerificationCode.class));
-        verify(emailSender).send(any(SimpleMailMessage.class));
-
-        ArgumentCaptor<SimpleMailMessage> messageCaptor = ArgumentCaptor.forClass(SimpleMailMessage.class);
-        verify(emailSender).send(messageCaptor.capture());
-        
-        SimpleMailMessage sentMessage = messageCaptor.getValue();
-        String[] recipients = sentMessage.getTo();
-        assertNotNull(recipients);
-        assertEquals(email, recipients[0]);
-        assertNotNull(sentMessage.getText());
-        String messageText = sentMessage.getText();
+        verify(verificationCodeService).issueVerificationCode(email, code);
+
+        ArgumentCaptor<String> bodyCaptor = ArgumentCaptor.forClass(String.class);
+        verify(emailOutboxService).enqueue(eq(email), anyString(), bodyCaptor.capture());
+
+        String messageText = bodyCaptor.getValue();
         assertNotNull(messageText);
         assertTrue(messageText.contains(code));
     }
@@ -91,7 +104,7 @@ class AuthServiceTest {
         String code = "123456";
 
         when(verificationCodeService.verifyCode(email, code)).thenReturn(true);
-        when(userService.findByEmail(email)).thenReturn(new User(email));
+        when(userService.findOrCreateUser(email)).thenReturn(new User(email));
 
         VerifyCodeRequest request = new VerifyCodeRequest(email, code);
         VerifyCodeResponse response = authService.verifyCode(request);
@@ -130,61 +143,63 @@ class AuthServiceTest {
         assertNotNull(response.getRefreshToken());
 
         // Verify the JWT token
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseClaimsJws(response.getAccessToken())
-                .getBody();
-
-        assertEquals(email, claims.getSubject());
-        assertTrue(claims.getExpiration().after(new Date()));
+        TokenPrincipal principal = authService.verifyAccessToken(response.getAccessToken());
+
+        assertEquals(email, principal.getSubject());
+        assertTrue(principal.getExpiresAt().isAfter(Instant.now()));
     }
 
     @Test
     void sendVerificationCode_Success() {
         SendVerificationCodeRequest request = new SendVerificationCodeRequest("test@example.com");
-        when(verificationCodeService.hasRecentActiveVerificationCode(anyString())).thenReturn(false);
         when(verificationCodeService.generateVerificationCode()).thenReturn("123456");
 
         SendVerificationCodeResponse response = authService.sendVerificationCode(request);
 
         assertTrue(response.isSuccess());
         assertEquals("Verification code sent successfully", response.getMessage());
-        verify(verificationCodeService).saveVerificationCode(any(VerificationCode.class));
-        verify(emailSender).send(any(SimpleMailMessage.class));
+        verify(verificationCodeService).issueVerificationCode("test@example.com", "123456");
+        verify(emailOutboxService).enqueue(eq("test@example.com"), anyString(), anyString());
     }
 
     @Test
     void sendVerificationCode_TooManyRequests() {
         SendVerificationCodeRequest request = new SendVerificationCodeRequest("test@example.com");
-        when(verificationCodeService.hasRecentActiveVerificationCode(anyString())).thenReturn(true);
+        when(verificationCodeService.generateVerificationCode()).thenReturn("123456");
+        when(verificationCodeService.issueVerificationCode(anyString(), anyString())).thenReturn(false);
 
         assertThrows(TooManyRequestsException.class, () -> authService.sendVerificationCode(request));
+        verifyNoInteractions(emailOutboxService);
     }
 
     @Test
     void verifyCode_Success_NewUser() {
         VerifyCodeRequest request = new VerifyCodeRequest("test@example.com", "123456");
         when(verificationCodeService.verifyCode(anyString(), anyString())).thenReturn(true);
-        when(userService.findByEmail(anyString())).thenReturn(null);
 
         VerifyCodeResponse response = authService.verifyCode(request);
 
         assertNotNull(response.getAccessToken());
         assertNotNull(response.getRefreshToken());
-        verify(userService).createUser(any(User.class));
+        // One atomic get-or-create instead of a lookup followed by a racing insert
+        verify(userService).findOrCreateUser("test@example.com");
+        verify(userService, never()).findByEmail(anyString());
+        verify(userService, never()).createUser(any(User.class));
     }
 
     @Test
     void verifyCode_Success_ExistingUser() {
         VerifyCodeRequest request = new VerifyCodeRequest("test@example.com", "123456");
         when(verificationCodeService.verifyCode(anyString(), anyString())).thenReturn(true);
-        when(userService.findByEmail(anyString())).thenReturn(new User("test@example.com"));
+        // A stale cached user must not decide the epoch of new tokens
+        when(userService.findOrCreateUser(anyString())).thenReturn(new User("test@example.com"));
+        when(tokenEpochCache.current("test@example.com")).thenReturn(2);
 
         VerifyCodeResponse response = authService.verifyCode(request);
 
         assertNotNull(response.getAccessToken());
         assertNotNull(response.getRefreshToken());
+        verify(refreshTokenService).saveRefreshToken(anyString(), eq("test@example.com"), eq(2), anyString(), any(Date.class));
         verify(userService, never()).createUser(any(User.class));
     }
 
@@ -200,6 +215,7 @@ class AuthServiceTest {
     void refreshToken_Success() {
         // Generate a valid JWT refresh token
         String validRefreshToken = Jwts.builder()
+            .setId("tokenId")
             .setSubject("test@example.com")
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + 3600000)) // 1 hour from now
@@ -207,68 +223,221 @@ class AuthServiceTest {
             .compact();
 
         RefreshTokenRequest request = new RefreshTokenRequest(validRefreshToken);
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setEmail("test@example.com");
-        refreshToken.setToken(validRefreshToken);
-        refreshToken.setStatus(RefreshTokenStatus.ACTIVE);
-        refreshToken.setExpiryDate(new Date(System.currentTimeMillis() + 3600000));
 
-        when(refreshTokenService.findByToken(validRefreshToken)).thenReturn(Optional.of(refreshToken));
+        when(refreshTokenService.rotateRefreshToken("tokenId", validRefreshToken)).thenReturn(true);
         when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
 
         RefreshTokenResponse response = authService.refreshToken(request);
 
         assertNotNull(response.getAccessToken());
         assertNotNull(response.getRefreshToken());
-        verify(refreshTokenService).deactivateRefreshToken(any(RefreshToken.class));
-        verify(refreshTokenService).blacklistToken(anyString());
+        verify(refreshTokenService).saveRefreshToken(anyString(), eq("test@example.com"), eq(0), eq(response.getRefreshToken()), any(Date.class));
     }
 
     @Test
     void refreshToken_InvalidToken() {
         RefreshTokenRequest request = new RefreshTokenRequest("invalidRefreshToken");
-        when(refreshTokenService.findByToken(anyString())).thenReturn(Optional.empty());
 
         assertThrows(AuthenticationException.class, () -> authService.refreshToken(request));
+        verifyNoInteractions(refreshTokenService);
     }
 
     @Test
-    void refreshToken_ExpiredToken() {
-        RefreshTokenRequest request = new RefreshTokenRequest("expiredRefreshToken");
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setEmail("test@example.com");
-        refreshToken.setStatus(RefreshTokenStatus.ACTIVE);
-        refreshToken.setExpiryDate(new Date(System.currentTimeMillis() - 3600000));
+    void refreshToken_UnknownToken() {
+        String unknownRefreshToken = signedRefreshToken("unknownTokenId", new Date(System.currentTimeMillis() + 3600000));
+        when(refreshTokenService.rotateRefreshToken(anyString(), anyString())).thenReturn(false);
+        when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
 
-        when(refreshTokenService.findByToken(anyString())).thenReturn(Optional.of(refreshToken));
+        assertThrows(AuthenticationException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(unknownRefreshToken)));
+        verify(refreshTokenService, never()).saveRefreshToken(anyString(), anyString(), anyInt(), anyString(), any(Date.class));
+    }
 
-        assertThrows(AuthenticationException.class, () -> authService.refreshToken(request));
-        verify(refreshTokenService).deactivateRefreshToken(any(RefreshToken.class));
+    @Test
+    void refreshToken_AlreadyUsed() {
+        String refreshTokenString = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() + 3600000));
+        when(refreshTokenService.rotateRefreshToken("tokenId", refreshTokenString)).thenReturn(true, false);
+        when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
+
+        authService.refreshToken(new RefreshTokenRequest(refreshTokenString));
+        AuthenticationException exception = assertThrows(AuthenticationException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(refreshTokenString)));
+
+        assertEquals("Refresh token is invalid or has already been used", exception.getMessage());
+        verify(refreshTokenService, times(1)).saveRefreshToken(anyString(), anyString(), anyInt(), anyString(), any(Date.class));
+    }
+
+    @Test
+    void refreshToken_RetryWithinGraceWindowReturnsSamePair() {
+        AuthService graceAuthService = newAuthService(Duration.ofSeconds(10));
+        String refreshTokenString = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() + 3600000));
+        when(refreshTokenService.rotateRefreshToken("tokenId", refreshTokenString)).thenReturn(true, false);
+        when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
+
+        RefreshTokenResponse first = graceAuthService.refreshToken(new RefreshTokenRequest(refreshTokenString));
+        RefreshTokenResponse retry = graceAuthService.refreshToken(new RefreshTokenRequest(refreshTokenString));
+
+        assertSame(first, retry);
+        verify(refreshTokenService, times(1)).rotateRefreshToken(anyString(), anyString());
+        verify(refreshTokenService, times(1)).saveRefreshToken(anyString(), anyString(), anyInt(), anyString(), any(Date.class));
+    }
+
+    @Test
+    void refreshToken_ConcurrentReuseHasSingleWinner() throws Exception {
+        String refreshTokenString = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() + 3600000));
+        // Stands in for the conditional UPDATE: only the first caller moves the row out of ACTIVE
+        ConcurrentHashMap<String, RefreshTokenStatus> statuses = new ConcurrentHashMap<>();
+        statuses.put("tokenId", RefreshTokenStatus.ACTIVE);
+        when(refreshTokenService.rotateRefreshToken(anyString(), anyString())).thenAnswer(invocation ->
+            statuses.replace(invocation.getArgument(0), RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED));
+        when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        authService.refreshToken(new RefreshTokenRequest(refreshTokenString));
+                        return true;
+                    } catch (AuthenticationException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    winners++;
+                }
+            }
+            assertEquals(1, winners);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(RefreshTokenStatus.ROTATED, statuses.get("tokenId"));
+        verify(refreshTokenService, times(1)).saveRefreshToken(anyString(), anyString(), anyInt(), anyString(), any(Date.class));
+    }
+
+    @Test
+    void refreshToken_ExpiredJwt() {
+        String expiredRefreshToken = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() - 1000));
+
+        assertThrows(AuthenticationException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(expiredRefreshToken)));
+        verifyNoInteractions(refreshTokenService);
     }
 
     @Test
     void revokeRefreshToken() {
-        String refreshToken = "tokenToRevoke";
+        String refreshToken = signedRefreshToken("tokenToRevoke", new Date(System.currentTimeMillis() + 3600000));
         authService.revokeRefreshToken(refreshToken);
 
-        verify(refreshTokenService).revokeRefreshToken(refreshToken);
-        verify(refreshTokenService).blacklistToken(refreshToken);
+        verify(refreshTokenService).revokeRefreshToken("tokenToRevoke");
+        verify(refreshTokenService).blacklistToken("tokenToRevoke");
     }
 
     @Test
     void revokeAllUserRefreshTokens() {
         String email = "test@example.com";
-        RefreshToken token1 = new RefreshToken();
-        token1.setToken("token1");
-        RefreshToken token2 = new RefreshToken();
-        token2.setToken("token2");
-        List<RefreshToken> userTokens = Arrays.asList(token1, token2);
-
-        when(refreshTokenService.findActiveTokensByEmail(email)).thenReturn(userTokens);
+        when(userService.incrementTokenEpoch(email)).thenReturn(true);
 
         authService.revokeAllUserRefreshTokens(email);
 
-        verify(refreshTokenService, times(2)).deactivateRefreshToken(any(RefreshToken.class));
-        verify(refreshTokenService, times(2)).blacklistToken(anyString());
+        verify(userService).incrementTokenEpoch(email);
+        ArgumentCaptor<UserTokensRevokedEvent> eventCaptor = ArgumentCaptor.forClass(UserTokensRevokedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(email, eventCaptor.getValue().getEmail());
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void revokeAllUserRefreshTokens_UnknownUser() {
+        when(userService.incrementTokenEpoch(anyString())).thenReturn(false);
+
+        authService.revokeAllUserRefreshTokens("unknown@example.com");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void refreshToken_RevokedEpoch() {
+        String refreshTokenString = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() + 3600000));
+        // The cached user still has epoch 0; the revocation is only visible through TokenEpochCache
+        when(userService.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
+        when(tokenEpochCache.current("test@example.com")).thenReturn(1);
+
+        AuthenticationException exception = assertThrows(AuthenticationException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(refreshTokenString)));
+
+        assertEquals("Refresh token has been revoked", exception.getMessage());
+        verify(refreshTokenService, never()).rotateRefreshToken(anyString(), anyString());
+    }
+
+    @Test
+    void refreshToken_RevokedTokenId() {
+        String refreshTokenString = signedRefreshToken("tokenId", new Date(System.currentTimeMillis() + 3600000));
+        when(refreshTokenService.isTokenRevoked("tokenId")).thenReturn(true);
+
+        assertThrows(AuthenticationException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(refreshTokenString)));
+
+        verifyNoInteractions(userService);
+        verify(refreshTokenService, never()).rotateRefreshToken(anyString(), anyString());
+    }
+
+    @Test
+    void verifyAccessToken_RevokedEpoch() {
+        when(verificationCodeService.verifyCode(anyString(), anyString())).thenReturn(true);
+        when(userService.findOrCreateUser(anyString())).thenReturn(new User("test@example.com"));
+        String accessToken = authService.verifyCode(new VerifyCodeRequest("test@example.com", "123456")).getAccessToken();
+        assertEquals("test@example.com", authService.verifyAccessToken(accessToken).getSubject());
+
+        when(tokenEpochCache.current("test@example.com")).thenReturn(1);
+
+        assertThrows(AuthenticationException.class, () -> authService.verifyAccessToken(accessToken));
+    }
+
+    @Test
+    void verifyAccessToken_ShouldReturnPrincipal() {
+        when(verificationCodeService.verifyCode(anyString(), anyString())).thenReturn(true);
+        when(userService.findOrCreateUser(anyString())).thenReturn(new User("test@example.com"));
+        VerifyCodeResponse response = authService.verifyCode(new VerifyCodeRequest("test@example.com", "123456"));
+
+        TokenPrincipal principal = authService.verifyAccessToken("Bearer " + response.getAccessToken());
+
+        assertEquals("test@example.com", principal.getSubject());
+        assertNotNull(principal.getIssuedAt());
+        assertTrue(principal.getExpiresAt().isAfter(principal.getIssuedAt()));
+        assertNull(principal.getTokenId());
+    }
+
+    @Test
+    void verifyAccessToken_InvalidToken() {
+        assertThrows(AuthenticationException.class, () -> authService.verifyAccessToken("Bearer invalid"));
+        assertThrows(AuthenticationException.class, () -> authService.verifyAccessToken(null));
+        assertFalse(authService.validateAccessToken("invalid"));
+    }
+
+    private AuthService newAuthService(Duration refreshGraceWindow) {
+        return new AuthService(verificationCodeService, emailOutboxService, new JwtTokenCodec(SECRET_KEY, TestSigningKeyRings.inMemory()),
+                new VerifiedTokenCache(1000, Duration.ofHours(1), new SimpleMeterRegistry()), userService, refreshTokenService,
+                tokenEpochCache, new RefreshGraceCache(refreshGraceWindow, 100, Duration.ofSeconds(1), new SimpleMeterRegistry()),
+                eventPublisher);
+    }
+
+    private static String signedRefreshToken(String tokenId, Date expiration) {
+        return Jwts.builder()
+            .setId(tokenId)
+            .setSubject("test@example.com")
+            .setIssuedAt(new Date(expiration.getTime() - 7200000))
+            .setExpiration(expiration)
+            .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+            .compact();
     }
-}
\ No newline at end of file
+}
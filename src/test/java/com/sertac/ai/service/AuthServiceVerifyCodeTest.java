@@ -0,0 +1,90 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.model.dto.VerifyCodeRequest;
+import com.sertac.ai.model.exception.VerificationException;
+import com.sertac.ai.repository.VerificationCodeRepository;
+import com.sertac.ai.repository.VerificationLockoutRepository;
+import com.sertac.ai.security.JwtTokenCodec;
+import com.sertac.ai.security.TokenEpochCache;
+import com.sertac.ai.security.VerifiedTokenCache;
+import com.sertac.ai.throttle.DatabaseLockoutStore;
+import com.sertac.ai.verification.DatabaseVerificationCodeStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives failed verifications through the transactional {@link AuthService} against H2 in MySQL
+ * mode, so the lockout counter is checked after the caller's transaction has rolled back.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:verify;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "app.domain=example.com",
+    "auth.lockout.max-attempts=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuthService.class, VerificationCodeService.class, DatabaseVerificationCodeStore.class, DatabaseLockoutStore.class})
+class AuthServiceVerifyCodeTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private VerificationCodeService verificationCodeService;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Autowired
+    private VerificationLockoutRepository verificationLockoutRepository;
+
+    @MockBean
+    private EmailOutboxService emailOutboxService;
+    @MockBean
+    private JwtTokenCodec tokenCodec;
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+    @MockBean
+    private TokenEpochCache tokenEpochCache;
+    @MockBean
+    private RefreshGraceCache refreshGraceCache;
+
+    @AfterEach
+    void tearDown() {
+        verificationLockoutRepository.deleteAll();
+        verificationCodeRepository.deleteAll();
+    }
+
+    @Test
+    void verifyCode_ShouldKeepFailedAttemptsAfterRollback() {
+        assertTrue(verificationCodeService.issueVerificationCode(EMAIL, "123456"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(VerificationException.class, () -> authService.verifyCode(request("000000")));
+        }
+
+        assertEquals(3, verificationLockoutRepository.findById(EMAIL).orElseThrow().getAttempts());
+        // Locked out, so even the right code is refused
+        assertThrows(VerificationException.class, () -> authService.verifyCode(request("123456")));
+    }
+
+    private static VerifyCodeRequest request(String code) {
+        return new VerifyCodeRequest(EMAIL, code);
+    }
+}
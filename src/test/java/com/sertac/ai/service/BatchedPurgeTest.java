@@ -0,0 +1,86 @@
+package com.sertac.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchedPurgeTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Counter affected;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        affected = meterRegistry.counter("purged");
+    }
+
+    @Test
+    void run_ShouldRepeatUntilShortBatch() {
+        BatchedPurge purge = newPurge(100, 10, Duration.ZERO);
+        List<Integer> limits = new ArrayList<>();
+        Deque<Integer> rows = new ArrayDeque<>(List.of(100, 100, 40, 100));
+
+        long total = purge.run(limit -> {
+            limits.add(limit);
+            return rows.pop();
+        }, affected);
+
+        assertEquals(240, total);
+        assertEquals(List.of(100, 100, 100), limits);
+        assertEquals(240, affected.count());
+        assertEquals(3, meterRegistry.get("purge.batch").timer().count());
+    }
+
+    @Test
+    void run_ShouldStopAfterMaxBatches() {
+        BatchedPurge purge = newPurge(100, 3, Duration.ZERO);
+        int[] calls = {0};
+
+        long total = purge.run(limit -> {
+            calls[0]++;
+            return limit;
+        }, affected);
+
+        assertEquals(3, calls[0]);
+        assertEquals(300, total);
+    }
+
+    @Test
+    void run_ShouldStopWhenInterruptedDuringPause() {
+        BatchedPurge purge = newPurge(100, 10, Duration.ofMinutes(1));
+        int[] calls = {0};
+
+        Thread.currentThread().interrupt();
+        try {
+            purge.run(limit -> {
+                calls[0]++;
+                return limit;
+            }, affected);
+
+            assertEquals(1, calls[0]);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveSizes() {
+        assertThrows(IllegalArgumentException.class, () -> newPurge(0, 10, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> newPurge(100, 0, Duration.ZERO));
+    }
+
+    private BatchedPurge newPurge(int batchSize, int maxBatches, Duration pause) {
+        return new BatchedPurge(batchSize, maxBatches, pause, meterRegistry, "purge.batch", "Latency of a single batch");
+    }
+}
@@ -0,0 +1,47 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxPurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new EmailOutboxPurger(emailOutboxRepository, 100, 3, Duration.ZERO, Duration.ofDays(1),
+                meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void purge_ShouldDeleteFinishedMessagesPastRetention() {
+        when(emailOutboxRepository.deleteFinishedBatch(any(Instant.class), anyInt())).thenReturn(40);
+
+        purger.purge();
+
+        verify(emailOutboxRepository).deleteFinishedBatch(NOW.minus(Duration.ofDays(1)), 100);
+        assertEquals(40, meterRegistry.get("auth.email_outbox.purged").counter().count());
+    }
+}
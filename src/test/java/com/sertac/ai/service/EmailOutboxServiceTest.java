@@ -0,0 +1,84 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.model.entity.EmailOutbox;
+import com.sertac.ai.model.enums.EmailOutboxStatus;
+import com.sertac.ai.model.event.EmailQueuedEvent;
+import com.sertac.ai.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmailOutboxService emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        emailOutboxService = new EmailOutboxService(emailOutboxRepository, eventPublisher, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void enqueue_ShouldSavePendingMessageAndPublishEvent() {
+        when(emailOutboxRepository.save(any(EmailOutbox.class))).thenAnswer(invocation -> {
+            EmailOutbox saved = invocation.getArgument(0);
+            saved.setId(42L);
+            return saved;
+        });
+
+        EmailOutbox message = emailOutboxService.enqueue("test@example.com", "Subject", "Body");
+
+        assertEquals(EmailOutboxStatus.PENDING, message.getStatus());
+        assertEquals(NOW, message.getNextAttemptAt());
+        ArgumentCaptor<EmailQueuedEvent> eventCaptor = ArgumentCaptor.forClass(EmailQueuedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(42L, eventCaptor.getValue().getOutboxId());
+    }
+
+    @Test
+    void claimDue_ShouldCountAttemptAndLeaseMessages() {
+        EmailOutbox message = new EmailOutbox("test@example.com", "Subject", "Body", NOW);
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), eq(NOW), any(Pageable.class)))
+            .thenReturn(List.of(message));
+
+        List<EmailOutbox> claimed = emailOutboxService.claimDue(10, Duration.ofMinutes(5));
+
+        assertEquals(1, claimed.size());
+        assertEquals(1, message.getAttempts());
+        assertEquals(NOW.plus(Duration.ofMinutes(5)), message.getNextAttemptAt());
+    }
+
+    @Test
+    void markAttemptFailed_ShouldRetryOrGiveUp() {
+        Instant retryAt = NOW.plusSeconds(30);
+
+        emailOutboxService.markAttemptFailed(1L, "Connection refused", retryAt);
+        emailOutboxService.markAttemptFailed(2L, "x".repeat(1000), null);
+
+        verify(emailOutboxRepository).markAttemptFailed(1L, EmailOutboxStatus.PENDING, retryAt, "Connection refused");
+        verify(emailOutboxRepository).markAttemptFailed(2L, EmailOutboxStatus.FAILED, NOW, "x".repeat(500));
+    }
+}
@@ -0,0 +1,112 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.model.dto.RefreshTokenResponse;
+import com.sertac.ai.model.exception.AuthenticationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshGraceCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final RefreshGraceCache cache = new RefreshGraceCache(Duration.ofSeconds(10), 100, Duration.ofSeconds(5), nanos::get);
+
+    @Test
+    void getOrRotate_ShouldReturnSamePairWithinWindow() {
+        AtomicInteger rotations = new AtomicInteger();
+        Supplier<RefreshTokenResponse> rotation = countingRotation(rotations);
+
+        RefreshTokenResponse first = cache.getOrRotate("tokenId", rotation);
+        RefreshTokenResponse retry = cache.getOrRotate("tokenId", rotation);
+
+        assertSame(first, retry);
+        assertEquals(1, rotations.get());
+    }
+
+    @Test
+    void getOrRotate_ShouldRotateAgainAfterWindow() {
+        AtomicInteger rotations = new AtomicInteger();
+        Supplier<RefreshTokenResponse> rotation = countingRotation(rotations);
+
+        cache.getOrRotate("tokenId", rotation);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        cache.getOrRotate("tokenId", rotation);
+
+        assertEquals(2, rotations.get());
+    }
+
+    @Test
+    void getOrRotate_ShouldNotCacheFailures() {
+        assertThrows(AuthenticationException.class, () -> cache.getOrRotate("tokenId", () -> {
+            throw new AuthenticationException("Refresh token is invalid or has already been used");
+        }));
+
+        AtomicInteger rotations = new AtomicInteger();
+        cache.getOrRotate("tokenId", countingRotation(rotations));
+
+        assertEquals(1, rotations.get());
+    }
+
+    @Test
+    void getOrRotate_ShouldBeDisabledByZeroWindow() {
+        RefreshGraceCache disabled = new RefreshGraceCache(Duration.ZERO, 100, Duration.ofSeconds(1), nanos::get);
+        AtomicInteger rotations = new AtomicInteger();
+
+        disabled.getOrRotate("tokenId", countingRotation(rotations));
+        disabled.getOrRotate("tokenId", countingRotation(rotations));
+
+        assertEquals(2, rotations.get());
+    }
+
+    @Test
+    void getOrRotate_ShouldShareInFlightRotation() throws Exception {
+        AtomicInteger rotations = new AtomicInteger();
+        CountDownLatch rotating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<RefreshTokenResponse> slowRotation = () -> {
+            rotations.incrementAndGet();
+            rotating.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new RefreshTokenResponse("access", "refresh");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<RefreshTokenResponse>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.getOrRotate("tokenId", slowRotation)));
+            rotating.await();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.getOrRotate("tokenId", slowRotation)));
+            }
+            release.countDown();
+
+            RefreshTokenResponse first = results.get(0).get();
+            for (Future<RefreshTokenResponse> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, rotations.get());
+    }
+
+    private static Supplier<RefreshTokenResponse> countingRotation(AtomicInteger rotations) {
+        return () -> new RefreshTokenResponse("access" + rotations.incrementAndGet(), "refresh" + rotations.get());
+    }
+}
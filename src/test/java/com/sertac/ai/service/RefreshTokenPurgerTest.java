@@ -0,0 +1,51 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenPurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new RefreshTokenPurger(refreshTokenRepository, 100, 3, Duration.ZERO, Duration.ofDays(7),
+                meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void purge_ShouldDeleteExpiredAndLongRevokedTokens() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(Date.class), anyInt())).thenReturn(40);
+        when(refreshTokenRepository.deleteRevokedBatch(any(Date.class), anyInt())).thenReturn(5);
+
+        purger.purge();
+
+        verify(refreshTokenRepository).deleteExpiredBatch(Date.from(NOW), 100);
+        verify(refreshTokenRepository).deleteRevokedBatch(Date.from(NOW.minus(Duration.ofDays(7))), 100);
+        assertEquals(40, meterRegistry.get("auth.refresh_tokens.purged").tag("reason", "expired").counter().count());
+        assertEquals(5, meterRegistry.get("auth.refresh_tokens.purged").tag("reason", "revoked").counter().count());
+    }
+}
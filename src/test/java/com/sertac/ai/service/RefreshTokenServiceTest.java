@@ -2,19 +2,26 @@ package com.sertac.ai.service;
 
 import com.sertac.ai.model.entity.RefreshToken;
 import com.sertac.ai.model.enums.RefreshTokenStatus;
+import com.sertac.ai.model.event.UserTokensRevokedEvent;
 import com.sertac.ai.model.exception.AuthenticationException;
 import com.sertac.ai.repository.RefreshTokenRepository;
+import com.sertac.ai.security.RevokedTokenFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class RefreshTokenServiceTest {
@@ -22,12 +29,14 @@ class RefreshTokenServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
-    @InjectMocks
+    private RevokedTokenFilter revokedTokenFilter;
     private RefreshTokenService refreshTokenService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        revokedTokenFilter = new RevokedTokenFilter(1000, 0.01, 100, new SimpleMeterRegistry());
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, revokedTokenFilter);
     }
 
     @Test
@@ -37,102 +46,146 @@ class RefreshTokenServiceTest {
         String token = "refreshToken";
         Date expiryDate = new Date();
 
-        refreshTokenService.saveRefreshToken(tokenId, email, token, expiryDate);
+        refreshTokenService.saveRefreshToken(tokenId, email, 2, token, expiryDate);
 
-        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        verify(refreshTokenRepository).save(argThat(saved ->
+            saved.getTokenId().equals(tokenId) &&
+            saved.getEpoch() == 2 &&
+            saved.getTokenHash().equals(RefreshTokenService.hashToken(token)) &&
+            saved.getTokenHash().length() == 64));
     }
 
     @Test
-    void findByToken() {
-        String token = "refreshToken";
-        RefreshToken refreshToken = new RefreshToken();
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.of(refreshToken));
+    void hashToken_ShouldKeepNonAsciiTokensApart() {
+        assertNotEquals(RefreshTokenService.hashToken("token\u00e9"), RefreshTokenService.hashToken("token\u00e8"));
+    }
 
-        Optional<RefreshToken> result = refreshTokenService.findByToken(token);
+    @Test
+    void rotateRefreshToken() {
+        String hash = RefreshTokenService.hashToken("refreshToken");
+        when(refreshTokenRepository.compareAndSetStatus(eq("tokenId"), eq(hash),
+            eq(RefreshTokenStatus.ACTIVE), eq(RefreshTokenStatus.ROTATED), any(Date.class))).thenReturn(1, 0);
 
-        assertTrue(result.isPresent());
-        assertEquals(refreshToken, result.get());
+        assertTrue(refreshTokenService.rotateRefreshToken("tokenId", "refreshToken"));
+        assertFalse(refreshTokenService.rotateRefreshToken("tokenId", "refreshToken"));
     }
 
     @Test
-    void deactivateRefreshToken() {
-        RefreshToken refreshToken = new RefreshToken();
-        refreshTokenService.deactivateRefreshToken(refreshToken);
+    void retireActiveTokens() {
+        revokedTokenFilter.rebuild(Stream.empty());
+        when(refreshTokenRepository.findStaleTokenIds("test@example.com", RefreshTokenStatus.ACTIVE))
+            .thenReturn(List.of("token1", "token2"));
 
-        assertEquals(RefreshTokenStatus.INACTIVE, refreshToken.getStatus());
-        verify(refreshTokenRepository).save(refreshToken);
+        refreshTokenService.retireActiveTokens(new UserTokensRevokedEvent("test@example.com"));
+
+        verify(refreshTokenRepository).updateStatusByTokenIds(eq(List.of("token1", "token2")), eq(RefreshTokenStatus.ACTIVE),
+            eq(RefreshTokenStatus.INACTIVE), any(Date.class));
+        assertTrue(revokedTokenFilter.mightContain("token1"));
+        assertTrue(revokedTokenFilter.mightContain("token2"));
     }
 
     @Test
-    void revokeRefreshToken() {
-        String token = "refreshToken";
-        RefreshToken refreshToken = new RefreshToken();
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.of(refreshToken));
+    void retireActiveTokens_nothingStale() {
+        when(refreshTokenRepository.findStaleTokenIds(anyString(), any())).thenReturn(List.of());
 
-        refreshTokenService.revokeRefreshToken(token);
+        refreshTokenService.retireActiveTokens(new UserTokensRevokedEvent("test@example.com"));
 
-        assertEquals(RefreshTokenStatus.INACTIVE, refreshToken.getStatus());
-        verify(refreshTokenRepository).save(refreshToken);
+        verify(refreshTokenRepository, never()).updateStatusByTokenIds(any(), any(), any(), any());
     }
 
     @Test
-    void revokeRefreshToken_tokenNotFound() {
-        String token = "nonExistentToken";
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.empty());
+    void isTokenRevoked_filterNegativeSkipsQuery() {
+        revokedTokenFilter.rebuild(Stream.of("revokedTokenId"));
 
-        assertThrows(AuthenticationException.class, () -> refreshTokenService.revokeRefreshToken(token));
+        assertFalse(refreshTokenService.isTokenRevoked("tokenId"));
+        verify(refreshTokenRepository, never()).findById(anyString());
     }
 
     @Test
-    void blacklistToken() {
-        String token = "refreshToken";
+    void isTokenRevoked_confirmsPositiveOnce() {
+        revokedTokenFilter.rebuild(Stream.of("revokedTokenId"));
         RefreshToken refreshToken = new RefreshToken();
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.of(refreshToken));
+        refreshToken.setStatus(RefreshTokenStatus.ROTATED);
+        when(refreshTokenRepository.findById("revokedTokenId")).thenReturn(Optional.of(refreshToken));
 
-        refreshTokenService.blacklistToken(token);
+        assertTrue(refreshTokenService.isTokenRevoked("revokedTokenId"));
+        assertTrue(refreshTokenService.isTokenRevoked("revokedTokenId"));
 
-        assertEquals(RefreshTokenStatus.BLACKLISTED, refreshToken.getStatus());
-        verify(refreshTokenRepository).save(refreshToken);
+        verify(refreshTokenRepository, times(1)).findById("revokedTokenId");
     }
 
     @Test
-    void blacklistToken_tokenNotFound() {
-        String token = "nonExistentToken";
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.empty());
+    void rotateRefreshToken_addsToRevokedTokenFilter() {
+        revokedTokenFilter.rebuild(Stream.empty());
+        when(refreshTokenRepository.compareAndSetStatus(eq("tokenId"), anyString(), any(), any(), any(Date.class))).thenReturn(1);
 
-        assertThrows(AuthenticationException.class, () -> refreshTokenService.blacklistToken(token));
+        refreshTokenService.rotateRefreshToken("tokenId", "refreshToken");
+
+        assertTrue(refreshTokenService.isTokenRevoked("tokenId"));
+        verify(refreshTokenRepository, never()).findById(anyString());
     }
 
     @Test
-    void isTokenBlacklisted() {
-        String token = "refreshToken";
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setStatus(RefreshTokenStatus.BLACKLISTED);
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.of(refreshToken));
+    void rebuildRevokedTokenFilter() {
+        when(refreshTokenRepository.streamRevokedTokenIds(eq(RefreshTokenStatus.ACTIVE), any(Date.class)))
+            .thenReturn(Stream.of("token1"));
+
+        refreshTokenService.rebuildRevokedTokenFilter();
+
+        assertTrue(revokedTokenFilter.isLoaded());
+        assertTrue(revokedTokenFilter.mightContain("token1"));
+    }
 
-        boolean result = refreshTokenService.isTokenBlacklisted(token);
+    @Test
+    void deactivateRefreshToken() {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenId("tokenId");
+        refreshTokenService.deactivateRefreshToken(refreshToken);
 
-        assertTrue(result);
+        assertEquals(RefreshTokenStatus.INACTIVE, refreshToken.getStatus());
+        assertNotNull(refreshToken.getRevokedAt());
+        verify(refreshTokenRepository).save(refreshToken);
     }
 
     @Test
-    void isTokenBlacklisted_tokenNotFound() {
-        String token = "nonExistentToken";
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.empty());
+    void revokeRefreshToken() {
+        String tokenId = "tokenId";
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenId(tokenId);
+        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
 
-        boolean result = refreshTokenService.isTokenBlacklisted(token);
+        refreshTokenService.revokeRefreshToken(tokenId);
 
-        assertFalse(result);
+        assertEquals(RefreshTokenStatus.INACTIVE, refreshToken.getStatus());
+        verify(refreshTokenRepository).save(refreshToken);
     }
 
     @Test
-    void findActiveTokensByEmail() {
-        String email = "test@example.com";
-        List<RefreshToken> activeTokens = List.of(new RefreshToken(), new RefreshToken());
-        when(refreshTokenRepository.findByEmailAndStatus(email, RefreshTokenStatus.ACTIVE)).thenReturn(activeTokens);
+    void revokeRefreshToken_tokenNotFound() {
+        String tokenId = "nonExistentTokenId";
+        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.empty());
 
-        List<RefreshToken> result = refreshTokenService.findActiveTokensByEmail(email);
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.revokeRefreshToken(tokenId));
+    }
+
+    @Test
+    void blacklistToken() {
+        String tokenId = "tokenId";
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenId(tokenId);
+        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
+
+        refreshTokenService.blacklistToken(tokenId);
+
+        assertEquals(RefreshTokenStatus.BLACKLISTED, refreshToken.getStatus());
+        verify(refreshTokenRepository).save(refreshToken);
+    }
+
+    @Test
+    void blacklistToken_tokenNotFound() {
+        String tokenId = "nonExistentTokenId";
+        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.empty());
 
-        assertEquals(activeTokens, result);
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.blacklistToken(tokenId));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.model.dto.IntrospectionRequest;
+import com.sertac.ai.model.dto.IntrospectionResponse;
+import com.sertac.ai.model.dto.TokenIntrospection;
+import com.sertac.ai.model.exception.AuthenticationException;
+import com.sertac.ai.model.exception.BadRequestException;
+import com.sertac.ai.security.TokenPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenIntrospectionServiceTest {
+
+    @Mock
+    private AuthService authService;
+
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenIntrospectionService = new TokenIntrospectionService(authService, 100, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenIntrospectionService.shutdown();
+    }
+
+    @Test
+    void introspect_ShouldReportActiveAndInactiveTokens() {
+        Instant issuedAt = Instant.ofEpochSecond(1700000000);
+        Instant expiresAt = issuedAt.plusSeconds(3600);
+        when(authService.verifyAccessToken("valid"))
+            .thenReturn(new TokenPrincipal("test@example.com", issuedAt, expiresAt, null));
+        when(authService.verifyAccessToken("invalid")).thenThrow(new AuthenticationException("Invalid token"));
+
+        IntrospectionResponse response = tokenIntrospectionService.introspect(new IntrospectionRequest(List.of("valid", "invalid")));
+
+        TokenIntrospection active = response.getResults().get(0);
+        assertTrue(active.isActive());
+        assertEquals("test@example.com", active.getSub());
+        assertEquals(expiresAt.getEpochSecond(), active.getExp());
+        assertEquals(issuedAt.getEpochSecond(), active.getIat());
+
+        TokenIntrospection inactive = response.getResults().get(1);
+        assertFalse(inactive.isActive());
+        assertNull(inactive.getSub());
+    }
+
+    @Test
+    void introspect_ShouldKeepRequestOrderForParallelBatches() {
+        when(authService.verifyAccessToken(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            if (token.startsWith("bad")) {
+                throw new AuthenticationException("Invalid token");
+            }
+            return new TokenPrincipal(token, Instant.now(), Instant.now().plusSeconds(60), null);
+        });
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add((i % 3 == 0 ? "bad" : "user") + i);
+        }
+
+        IntrospectionResponse response = tokenIntrospectionService.introspect(new IntrospectionRequest(tokens));
+
+        assertEquals(100, response.getResults().size());
+        for (int i = 0; i < 100; i++) {
+            TokenIntrospection result = response.getResults().get(i);
+            assertEquals(i % 3 != 0, result.isActive());
+            if (result.isActive()) {
+                assertEquals(tokens.get(i), result.getSub());
+            }
+        }
+        verify(authService, times(100)).verifyAccessToken(anyString());
+    }
+
+    @Test
+    void introspect_ShouldRejectEmptyOrOversizedBatches() {
+        assertThrows(BadRequestException.class,
+            () -> tokenIntrospectionService.introspect(new IntrospectionRequest(List.of())));
+        assertThrows(BadRequestException.class,
+            () -> tokenIntrospectionService.introspect(new IntrospectionRequest(null)));
+        assertThrows(BadRequestException.class,
+            () -> tokenIntrospectionService.introspect(new IntrospectionRequest(Collections.nCopies(101, "token"))));
+    }
+}
@@ -0,0 +1,150 @@
+package com.sertac.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sertac.ai.model.dto.UserImportResponse;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports and exports against H2 in MySQL mode, so {@code INSERT IGNORE} and the batch update
+ * counts behave as they do in production.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBulkServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserBulkService userBulkService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userBulkService = new UserBulkService(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager),
+            new ObjectMapper(), 2, 2, 100, false, meterRegistry, CLOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importUsers_ShouldInsertCsvInBatchesAndSkipExisting() throws Exception {
+        userRepository.save(new User("existing@example.com"));
+
+        UserImportResponse result = importUsers(UserBulkService.Format.CSV,
+            "id,Email\n1,A@Example.com\n2,existing@example.com\n3,b@example.com\n\n4,a@example.com\n5,c@example.com\n");
+
+        assertEquals(5, result.getProcessed());
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getSkipped());
+        assertEquals(0, result.getFailed());
+        assertEquals(4, userRepository.count());
+        assertNotNull(userRepository.findByEmail("a@example.com"));
+        assertEquals(3, meterRegistry.get("auth.user_import.rows").tag("outcome", "inserted").counter().count());
+    }
+
+    @Test
+    void importUsers_ShouldTreatFirstColumnAsEmailWithoutHeader() throws Exception {
+        UserImportResponse result = importUsers(UserBulkService.Format.CSV, "\"a@example.com\",ignored\nb@example.com\n");
+
+        assertEquals(2, result.getInserted());
+        assertNotNull(userRepository.findByEmail("a@example.com"));
+    }
+
+    @Test
+    void importUsers_ShouldReportFailedRowsByLine() throws Exception {
+        UserImportResponse result = importUsers(UserBulkService.Format.NDJSON,
+            "{\"email\":\"a@example.com\"}\n{\"email\":\"not an email\"}\n{\"name\":\"x\"}\n{broken\n{\"email\":\"b@example.com\"}\n");
+
+        assertEquals(5, result.getProcessed());
+        assertEquals(2, result.getInserted());
+        assertEquals(3, result.getFailed());
+        assertTrue(result.isFailuresTruncated());
+        List<UserImportResponse.Failure> failures = result.getFailures();
+        assertEquals(2, failures.size());
+        assertEquals(2, failures.get(0).getLine());
+        assertEquals("Invalid email format", failures.get(0).getReason());
+        assertEquals(3, failures.get(1).getLine());
+        assertEquals("Missing email", failures.get(1).getReason());
+    }
+
+    @Test
+    void exportUsers_ShouldWriteEveryUserInIdOrder() throws Exception {
+        importUsers(UserBulkService.Format.CSV, "b@example.com\na@example.com\nc@example.com\n");
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        userBulkService.exportUsers(csv, UserBulkService.Format.CSV);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("id,email,created_at,token_epoch", lines[0]);
+        assertTrue(lines[1].contains(",b@example.com,2026-01-01T00:00,0"));
+        assertTrue(lines[3].contains(",c@example.com,"));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        userBulkService.exportUsers(ndjson, UserBulkService.Format.NDJSON);
+        String[] objects = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, objects.length);
+        assertEquals("a@example.com", new ObjectMapper().readTree(objects[1]).get("email").asText());
+    }
+
+    @Test
+    void exportedCsv_ShouldImportAgain() throws Exception {
+        importUsers(UserBulkService.Format.CSV, "a@example.com\nb@example.com\n");
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        userBulkService.exportUsers(csv, UserBulkService.Format.CSV);
+
+        UserImportResponse result = importUsers(UserBulkService.Format.CSV, csv.toString(StandardCharsets.UTF_8));
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(2, result.getSkipped());
+        assertEquals(0, result.getFailed());
+    }
+
+    @Test
+    void parseCsvLine_ShouldHandleQuotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), UserBulkService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+
+    private UserImportResponse importUsers(UserBulkService.Format format, String body) throws Exception {
+        return userBulkService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
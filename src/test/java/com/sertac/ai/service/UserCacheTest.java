@@ -0,0 +1,88 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.repository.UserChangeRepository;
+import com.sertac.ai.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userCache = new UserCache(userRepository, userChangeRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(10), Duration.ofHours(1), 1000, 500, Duration.ZERO, new SimpleMeterRegistry(),
+                nanos::get, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void findByEmail_ShouldNotCacheMissingUsers() {
+        assertNull(userCache.findByEmail("new@example.com"));
+        when(userRepository.findByEmail("new@example.com")).thenReturn(new User("new@example.com"));
+
+        assertNotNull(userCache.findByEmail("new@example.com"));
+        verify(userRepository, times(2)).findByEmail("new@example.com");
+    }
+
+    @Test
+    void findByEmail_ShouldReloadAfterTtl() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(new User("test@example.com"));
+        userCache.findByEmail("test@example.com");
+
+        nanos.addAndGet(Duration.ofMinutes(10).toNanos());
+        userCache.findByEmail("test@example.com");
+
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void pollChanges_ShouldEvictUsersChangedOnOtherNodes() {
+        when(userRepository.findByEmail(any())).thenAnswer(invocation -> new User(invocation.getArgument(0)));
+        userCache.findByEmail("changed@example.com");
+        userCache.findByEmail("unchanged@example.com");
+        when(userChangeRepository.findEmailsChangedSince(NOW.minusSeconds(10))).thenReturn(List.of("changed@example.com"));
+
+        userCache.pollChanges();
+
+        assertEquals(1, userCache.size());
+        userCache.findByEmail("changed@example.com");
+        verify(userRepository, times(2)).findByEmail("changed@example.com");
+    }
+
+    @Test
+    void purgeChanges_ShouldDeleteChangesPastRetention() {
+        when(userChangeRepository.deleteBatch(any(Instant.class), anyInt())).thenReturn(10);
+
+        userCache.purgeChanges();
+
+        verify(userChangeRepository).deleteBatch(NOW.minus(Duration.ofHours(1)), 1000);
+    }
+}
@@ -0,0 +1,108 @@
+package com.sertac.ai.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sertac.ai.model.entity.User;
+import com.sertac.ai.repository.UserChangeRepository;
+import com.sertac.ai.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs concurrent first logins against H2 in MySQL mode, each in its own transaction, so they
+ * really race on the unique email key.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:users;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceFindOrCreateTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserService userService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, new UserCache(userRepository, userChangeRepository, 100,
+            Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ofHours(1), 1000, 500, Duration.ZERO,
+            new SimpleMeterRegistry(), Ticker.systemTicker(), Clock.systemUTC()));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findOrCreateUser_ShouldCreateOneUserUnderConcurrentFirstLogins() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> userService.findOrCreateUser("new@example.com").getId());
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> result : results) {
+                ids.add(result.get());
+            }
+            assertEquals(1, ids.size());
+            assertNotNull(ids.iterator().next());
+            assertEquals(1, userRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findOrCreateUser_ShouldReturnExistingUser() {
+        User existing = new User("test@example.com");
+        existing.setTokenEpoch(3);
+        existing = userRepository.save(existing);
+
+        User found = transactionTemplate.execute(status -> userService.findOrCreateUser("test@example.com"));
+
+        assertEquals(existing.getId(), found.getId());
+        assertEquals(3, found.getTokenEpoch());
+        assertEquals(1, userRepository.count());
+    }
+}
@@ -5,24 +5,35 @@ import static org.mockito.Mockito.*;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.sertac.ai.model.entity.User;
+import com.sertac.ai.model.entity.UserChange;
+import com.sertac.ai.repository.UserChangeRepository;
 import com.sertac.ai.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
 
 class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        userService = new UserService(userRepository, new UserCache(userRepository, userChangeRepository, 100,
+            Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ofHours(1), 1000, 500, Duration.ZERO,
+            new SimpleMeterRegistry(), Ticker.systemTicker(), Clock.systemUTC()));
     }
 
     @Test
@@ -37,6 +48,7 @@ class UserServiceTest {
         assertNotNull(createdUser);
         assertEquals(user.getEmail(), createdUser.getEmail());
         verify(userRepository).save(user);
+        verify(userChangeRepository).save(any(UserChange.class));
     }
 
     @Test
@@ -80,6 +92,32 @@ class UserServiceTest {
         assertEquals(email, foundUser.getEmail());
     }
 
+    @Test
+    void findByEmail_ShouldServeRepeatLookupsFromCache() {
+        User user = new User("test@example.com");
+        when(userRepository.findByEmail(anyString())).thenReturn(user);
+
+        userService.findByEmail("test@example.com");
+        User foundUser = userService.findByEmail("test@example.com");
+
+        assertSame(user, foundUser);
+        verify(userRepository, times(1)).findByEmail(anyString());
+    }
+
+    @Test
+    void incrementTokenEpoch_ShouldEvictCachedUser() {
+        User user = new User("test@example.com");
+        when(userRepository.findByEmail("test@example.com")).thenReturn(user);
+        when(userRepository.incrementTokenEpoch("test@example.com")).thenReturn(1);
+        userService.findByEmail("test@example.com");
+
+        assertTrue(userService.incrementTokenEpoch("test@example.com"));
+        userService.findByEmail("test@example.com");
+
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+        verify(userChangeRepository).save(any(UserChange.class));
+    }
+
     @Test
     void findByEmail_NullEmail_ThrowsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> userService.findByEmail(null));
@@ -91,7 +129,10 @@ class UserServiceTest {
     }
 
     @Test
-    void findByEmail_InvalidEmail_ThrowsIllegalArgumentException() {
-        assertThrows(IllegalArgumentException.class, () -> userService.findByEmail("invalid-email"));
+    void findByEmail_ShouldFindUserStoredUnderOlderEmailRules() {
+        User user = new User("a@b_c.com");
+        when(userRepository.findByEmail("a@b_c.com")).thenReturn(user);
+
+        assertSame(user, userService.findByEmail("a@b_c.com"));
     }
 }
\ No newline at end of file
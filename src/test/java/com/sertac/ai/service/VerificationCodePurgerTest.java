@@ -0,0 +1,57 @@
+package com.sertac.ai.service;
+
+import com.sertac.ai.repository.VerificationCodeRepository;
+import com.sertac.ai.throttle.LockoutStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class VerificationCodePurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final LocalDateTime LOCAL_NOW = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    @Mock
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Mock
+    private LockoutStore lockoutStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerificationCodePurger purger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new VerificationCodePurger(verificationCodeRepository, lockoutStore, 100, 3, Duration.ZERO,
+                Duration.ofDays(1), meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void purge_ShouldExpireDueCodesAndDeleteRetiredOnes() {
+        when(verificationCodeRepository.expireBatch(any(LocalDateTime.class), anyInt())).thenReturn(40);
+        when(verificationCodeRepository.deleteRetiredBatch(any(LocalDateTime.class), anyInt())).thenReturn(5);
+
+        purger.purge();
+
+        verify(verificationCodeRepository).expireBatch(LOCAL_NOW, 100);
+        verify(verificationCodeRepository).deleteRetiredBatch(LOCAL_NOW.minusDays(1), 100);
+        verify(lockoutStore).purgeExpired();
+        assertEquals(40, meterRegistry.get("auth.verification_codes.expired").counter().count());
+        assertEquals(5, meterRegistry.get("auth.verification_codes.purged").counter().count());
+    }
+}
@@ -3,12 +3,15 @@ package com.sertac.ai.service;
 import com.sertac.ai.model.entity.VerificationCode;
 import com.sertac.ai.model.enums.VerificationCodeStatus;
 import com.sertac.ai.repository.VerificationCodeRepository;
+import com.sertac.ai.throttle.InMemoryLockoutStore;
+import com.sertac.ai.verification.DatabaseVerificationCodeStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -25,12 +28,14 @@ class VerificationCodeServiceTest {
     @Mock
     private VerificationCodeRepository verificationCodeRepository;
 
-    @InjectMocks
     private VerificationCodeService verificationCodeService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        verificationCodeService = new VerificationCodeService(verificationCodeRepository,
+            new DatabaseVerificationCodeStore(verificationCodeRepository, Duration.ofMinutes(5), Duration.ofMinutes(5)),
+            new InMemoryLockoutStore(5, Duration.ofMinutes(15), Duration.ofHours(1), 100_000, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -42,20 +47,19 @@ class VerificationCodeServiceTest {
     }
 
     @Test
-    void saveVerificationCode_shouldSaveCodeWithExpirationTime() {
+    void issueVerificationCode_shouldReplaceExistingCodeInPlace() {
         String email = "test@example.com";
         String code = "123456";
-        
-        VerificationCode verificationCode = new VerificationCode(email, code);
-        when(verificationCodeRepository.save(any(VerificationCode.class))).thenReturn(verificationCode);
-        
-        verificationCodeService.saveVerificationCode(verificationCode);
-        
-        verify(verificationCodeRepository, times(1)).save(argThat(vc -> 
-            vc.getEmail().equals(email) &&
-            vc.getCode().equals(code) &&
-            vc.getExpirationTime().isAfter(LocalDateTime.now())
-        ));
+        when(verificationCodeRepository.reissue(eq(email), eq(code), eq(VerificationCodeStatus.ACTIVE),
+            any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        assertTrue(verificationCodeService.issueVerificationCode(email, code));
+
+        verify(verificationCodeRepository).reissue(eq(email), eq(code), eq(VerificationCodeStatus.ACTIVE),
+            any(LocalDateTime.class), argThat(expiresAt -> expiresAt.isAfter(LocalDateTime.now())),
+            argThat(cooldownBefore -> cooldownBefore.isBefore(LocalDateTime.now())));
+        verify(verificationCodeRepository, never()).insertIfAbsent(any(), any(), any(), any());
+        verify(verificationCodeRepository, never()).save(any(VerificationCode.class));
     }
 
     @Test
@@ -137,24 +141,23 @@ class VerificationCodeServiceTest {
     }
 
     @Test
-    void testSaveVerificationCode_ValidEmail() {
-        VerificationCode code = new VerificationCode();
-        code.setEmail("test@example.com");
-        code.setCode("123456");
+    void testIssueVerificationCode_FirstCodeForEmail() {
+        when(verificationCodeRepository.insertIfAbsent(eq("test@example.com"), eq("123456"),
+            any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
 
-        verificationCodeService.saveVerificationCode(code);
+        assertTrue(verificationCodeService.issueVerificationCode("test@example.com", "123456"));
 
-        verify(verificationCodeRepository).save(code);
-        assertNotNull(code.getExpirationTime());
+        verify(verificationCodeRepository).reissue(eq("test@example.com"), eq("123456"), eq(VerificationCodeStatus.ACTIVE),
+            any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
-    void testSaveVerificationCode_InvalidEmail() {
-        VerificationCode code = new VerificationCode();
-        code.setEmail("invalid-email");
-        code.setCode("123456");
+    void testIssueVerificationCode_WithinCooldown() {
+        // Neither statement changes a row while the current code is still recent
+        assertFalse(verificationCodeService.issueVerificationCode("test@example.com", "123456"));
 
-        assertThrows(IllegalArgumentException.class, () -> verificationCodeService.saveVerificationCode(code));
+        verify(verificationCodeRepository).insertIfAbsent(eq("test@example.com"), eq("123456"),
+            any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -218,18 +221,19 @@ class VerificationCodeServiceTest {
     }
 
     @Test
-    void testUpdateExpiredCodes() {
-        List<VerificationCode> expiredCodes = Arrays.asList(
-            new VerificationCode(), new VerificationCode()
-        );
-
-        when(verificationCodeRepository.findAllByExpirationTimeBeforeAndStatus(any(LocalDateTime.class), eq(VerificationCodeStatus.ACTIVE)))
-            .thenReturn(expiredCodes);
+    void verifyCode_shouldNotQueryCodeWhileLockedOut() {
+        String email = "test@example.com";
+        VerificationCode storedCode = new VerificationCode(email, "123456");
+        storedCode.setExpirationTime(LocalDateTime.now().plusMinutes(5));
+        when(verificationCodeRepository.findByEmailAndStatus(email, VerificationCodeStatus.ACTIVE))
+            .thenReturn(Optional.of(storedCode));
 
-        verificationCodeService.updateExpiredCodes();
+        for (int i = 0; i < 5; i++) {
+            assertFalse(verificationCodeService.verifyCode(email, "000000"));
+        }
 
-        verify(verificationCodeRepository).saveAll(expiredCodes);
-        expiredCodes.forEach(code -> assertEquals(VerificationCodeStatus.EXPIRED, code.getStatus()));
+        assertFalse(verificationCodeService.verifyCode(email, "123456"));
+        verify(verificationCodeRepository, times(5)).findByEmailAndStatus(email, VerificationCodeStatus.ACTIVE);
     }
 
     @Test
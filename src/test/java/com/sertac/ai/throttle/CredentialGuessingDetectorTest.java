@@ -0,0 +1,104 @@
+package com.sertac.ai.throttle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialGuessingDetectorTest {
+
+    private static final String IP = "203.0.113.7";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final CredentialGuessingDetector detector =
+        new CredentialGuessingDetector(Duration.ofMinutes(10), 5, 20, 2048, 4, 8, clock);
+
+    @Test
+    void isSuspect_ShouldFlagClientAtIpThreshold() {
+        for (int i = 0; i < 4; i++) {
+            detector.recordFailure(IP, "user" + i + "@example.com");
+        }
+        assertFalse(detector.isSuspect(IP, "victim@example.com"));
+
+        detector.recordFailure(IP, "user4@example.com");
+
+        assertTrue(detector.isSuspect(IP, "victim@example.com"));
+        assertFalse(detector.isSuspect("198.51.100.1", "victim@example.com"));
+    }
+
+    @Test
+    void isSuspect_ShouldFlagDomainAtDomainThreshold() {
+        for (int i = 0; i < 20; i++) {
+            detector.recordFailure("198.51.100." + i, "user" + i + "@Target.example");
+        }
+
+        assertTrue(detector.isSuspect("192.0.2.1", "someone@target.example"));
+        assertFalse(detector.isSuspect("192.0.2.1", "someone@other.example"));
+    }
+
+    @Test
+    void isSuspect_ShouldForgetFailuresAfterTwoWindows() {
+        for (int i = 0; i < 5; i++) {
+            detector.recordFailure(IP, "user" + i + "@example.com");
+        }
+
+        // Still counted while the failures sit in the previous window
+        clock.advance(Duration.ofMinutes(10));
+        assertTrue(detector.isSuspect(IP, null));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertFalse(detector.isSuspect(IP, null));
+    }
+
+    @Test
+    void isSuspect_ShouldIgnoreMissingKeys() {
+        detector.recordFailure(null, null);
+        detector.recordFailure("", "not-an-email");
+
+        assertFalse(detector.isSuspect(null, null));
+        assertFalse(detector.isSuspect("", "not-an-email"));
+    }
+
+    @Test
+    void sketchBytes_ShouldReportBothWindowsPerDimension() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new CredentialGuessingDetector(Duration.ofMinutes(10), 5, 20, 2048, 4, 8, meterRegistry);
+
+        // 2 windows * 4 rows * 2048 int counters
+        assertEquals(65536, meterRegistry.get("auth.guessing.sketch.bytes").tag("dimension", "ip").gauge().value());
+        assertEquals(65536, meterRegistry.get("auth.guessing.sketch.bytes").tag("dimension", "domain").gauge().value());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sertac.ai.throttle;
+
+import com.sertac.ai.repository.VerificationLockoutRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the lockout statements against H2 in MySQL mode, which accepts the same
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} syntax.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:lockouts;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DatabaseLockoutStoreTest {
+
+    private static final String KEY = "test@example.com";
+
+    @Autowired
+    private VerificationLockoutRepository verificationLockoutRepository;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+    private DatabaseLockoutStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DatabaseLockoutStore(verificationLockoutRepository, 5, Duration.ofMinutes(15), Duration.ofHours(1), clock);
+    }
+
+    @Test
+    void recordFailure_ShouldLockOnMaxAttempts() {
+        for (int i = 0; i < 4; i++) {
+            assertFalse(store.recordFailure(KEY));
+        }
+        assertFalse(store.isLocked(KEY));
+
+        assertTrue(store.recordFailure(KEY));
+        assertTrue(store.isLocked(KEY));
+        assertFalse(store.recordFailure(KEY));
+    }
+
+    @Test
+    void recordFailure_ShouldStartOverAfterLockoutExpires() {
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure(KEY);
+        }
+        clock.advance(Duration.ofMinutes(15));
+
+        assertFalse(store.isLocked(KEY));
+        assertFalse(store.recordFailure(KEY));
+        assertEquals(1, verificationLockoutRepository.findById(KEY).orElseThrow().getAttempts());
+    }
+
+    @Test
+    void reset_ShouldDeleteCounter() {
+        store.recordFailure(KEY);
+
+        store.reset(KEY);
+
+        assertTrue(verificationLockoutRepository.findById(KEY).isEmpty());
+    }
+
+    @Test
+    void purgeExpired_ShouldKeepActiveLockoutsAndRecentCounters() {
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure("locked@example.com");
+        }
+        store.recordFailure("idle@example.com");
+        clock.advance(Duration.ofMinutes(61));
+        store.recordFailure("recent@example.com");
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure("still-locked@example.com");
+        }
+
+        store.purgeExpired();
+
+        assertEquals(2, verificationLockoutRepository.count());
+        assertTrue(store.isLocked("still-locked@example.com"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
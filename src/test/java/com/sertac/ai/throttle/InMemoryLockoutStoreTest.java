@@ -0,0 +1,182 @@
+package com.sertac.ai.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLockoutStoreTest {
+
+    private static final String KEY = "test@example.com";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final InMemoryLockoutStore store = new InMemoryLockoutStore(5, Duration.ofMinutes(15), Duration.ofHours(1), 100_000, clock);
+
+    @Test
+    void recordFailure_ShouldLockOnMaxAttempts() {
+        for (int i = 0; i < 4; i++) {
+            assertFalse(store.recordFailure(KEY));
+        }
+        assertFalse(store.isLocked(KEY));
+
+        assertTrue(store.recordFailure(KEY));
+        assertTrue(store.isLocked(KEY));
+        assertFalse(store.recordFailure(KEY));
+    }
+
+    @Test
+    void recordFailure_ShouldStartOverAfterLockoutExpires() {
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure(KEY);
+        }
+        clock.advance(Duration.ofMinutes(15));
+
+        assertFalse(store.isLocked(KEY));
+        assertFalse(store.recordFailure(KEY));
+        assertFalse(store.isLocked(KEY));
+    }
+
+    @Test
+    void reset_ShouldClearAttemptsAndLockout() {
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure(KEY);
+        }
+
+        store.reset(KEY);
+
+        assertFalse(store.isLocked(KEY));
+        for (int i = 0; i < 4; i++) {
+            assertFalse(store.recordFailure(KEY));
+        }
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredLockoutsAndIdleCounters() {
+        // One entry per segment, so a purge pass covers every slot
+        InMemoryLockoutStore small = new InMemoryLockoutStore(5, Duration.ofMinutes(15), Duration.ofHours(1), 64, clock);
+        for (int i = 0; i < 5; i++) {
+            small.recordFailure("locked@example.com");
+        }
+        small.recordFailure("idle@example.com");
+        clock.advance(Duration.ofMinutes(61));
+        small.recordFailure("recent@example.com");
+
+        small.purgeExpired();
+
+        assertEquals(1, small.size());
+    }
+
+    @Test
+    void isLocked_ShouldTreatExpiredEntriesAsAbsent() {
+        for (int i = 0; i < 4; i++) {
+            store.recordFailure(KEY);
+        }
+        clock.advance(Duration.ofMinutes(61));
+
+        // The idle counter was forgotten, so four more failures do not lock yet
+        for (int i = 0; i < 4; i++) {
+            assertFalse(store.recordFailure(KEY));
+        }
+        assertFalse(store.isLocked(KEY));
+    }
+
+    @Test
+    void recordFailure_ShouldStayWithinCapacity() {
+        InMemoryLockoutStore small = new InMemoryLockoutStore(5, Duration.ofMinutes(15), Duration.ofHours(1), 256, clock);
+
+        for (int i = 0; i < 10_000; i++) {
+            small.recordFailure("user" + i + "@example.com");
+        }
+
+        assertTrue(small.size() <= 256);
+        assertEquals(10_000 - small.size(), small.evictions());
+    }
+
+    @Test
+    void recordFailure_ShouldEvictCountersBeforeLockouts() {
+        InMemoryLockoutStore small = new InMemoryLockoutStore(5, Duration.ofMinutes(15), Duration.ofHours(1), 256, clock);
+        for (int i = 0; i < 5; i++) {
+            small.recordFailure(KEY);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            small.recordFailure("user" + i + "@example.com");
+        }
+
+        assertTrue(small.isLocked(KEY));
+    }
+
+    @Test
+    void recordFailure_ShouldLockExactlyOnceUnderContention() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 50;
+        InMemoryLockoutStore contended = new InMemoryLockoutStore(threads * attemptsPerThread, Duration.ofMinutes(15),
+            Duration.ofHours(1), 100_000, clock);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int locked = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (contended.recordFailure(KEY)) {
+                            locked++;
+                        }
+                    }
+                    return locked;
+                }));
+            }
+            start.countDown();
+
+            int locked = 0;
+            for (Future<Integer> result : results) {
+                locked += result.get();
+            }
+            // No increment was lost, so the last of the 400 failures reached the limit
+            assertEquals(1, locked);
+            assertTrue(contended.isLocked(KEY));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sertac.ai.throttle;
+
+import com.sertac.ai.model.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SendThrottleTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final SendThrottle throttle = new SendThrottle(
+        RateLimitPolicy.parse("4/PT1H,2"),
+        RateLimitPolicy.parse("100/PT1M"),
+        RateLimitPolicy.parse("3/PT15M,2"),
+        1000, nanos::get);
+
+    @Test
+    void acquire_ShouldAllowBurstThenReportRetryAfter() {
+        throttle.acquire("a@example.com", "203.0.113.7");
+        throttle.acquire("a@example.com", "198.51.100.1");
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+            () -> throttle.acquire("a@example.com", "192.0.2.1"));
+
+        // One email per five minutes at the sustained rate; the burst used up the next slot
+        assertEquals(Duration.ofMinutes(5), e.getRetryAfter());
+    }
+
+    @Test
+    void acquire_ShouldRefillAtSustainedRate() {
+        throttle.acquire("a@example.com", null);
+        throttle.acquire("a@example.com", null);
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        throttle.acquire("a@example.com", null);
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("a@example.com", null));
+    }
+
+    @Test
+    void acquire_ShouldLimitClientAcrossRecipients() {
+        throttle.acquire("a@example.com", "203.0.113.7");
+        throttle.acquire("b@example.com", "203.0.113.7");
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+            () -> throttle.acquire("c@example.com", "203.0.113.7"));
+
+        assertEquals(Duration.ofMinutes(15), e.getRetryAfter());
+        // The rejected request did not spend the recipient's allowance
+        throttle.acquire("c@example.com", "198.51.100.1");
+        throttle.acquire("c@example.com", "198.51.100.2");
+    }
+
+    @Test
+    void acquire_ShouldLimitRecipientDomain() {
+        SendThrottle domainLimited = new SendThrottle(RateLimitPolicy.parse("100/PT1H"), RateLimitPolicy.parse("2/PT1M"),
+            RateLimitPolicy.parse("100/PT1H"), 1000, nanos::get);
+        domainLimited.acquire("a@target.example", null);
+        domainLimited.acquire("b@target.example", null);
+
+        assertThrows(TooManyRequestsException.class, () -> domainLimited.acquire("c@target.example", null));
+        domainLimited.acquire("c@other.example", null);
+    }
+
+    @Test
+    void parse_ShouldRejectMalformedPolicy() {
+        assertEquals(new RateLimitPolicy(5, Duration.ofHours(1), 5), RateLimitPolicy.parse("5/PT1H"));
+        assertEquals(new RateLimitPolicy(5, Duration.ofHours(1), 3), RateLimitPolicy.parse(" 5 / PT1H , 3 "));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("5 per hour"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("0/PT1H"));
+    }
+}
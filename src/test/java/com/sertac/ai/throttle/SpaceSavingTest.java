@@ -0,0 +1,38 @@
+package com.sertac.ai.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void top_ShouldRankHeavyHitterAboveManyLightKeys() {
+        SpaceSaving summary = new SpaceSaving(8);
+        for (int i = 0; i < 30; i++) {
+            summary.offer("heavy");
+        }
+        for (int i = 0; i < 100; i++) {
+            summary.offer("light" + i);
+        }
+
+        List<HeavyHitter> top = summary.top(1);
+
+        assertEquals(1, top.size());
+        assertEquals("heavy", top.get(0).key());
+        assertTrue(top.get(0).count() - top.get(0).error() <= 30);
+        assertTrue(top.get(0).count() >= 30);
+    }
+
+    @Test
+    void clear_ShouldForgetAllKeys() {
+        SpaceSaving summary = new SpaceSaving(8);
+        summary.offer("key");
+
+        summary.clear();
+
+        assertTrue(summary.top(Integer.MAX_VALUE).isEmpty());
+    }
+}
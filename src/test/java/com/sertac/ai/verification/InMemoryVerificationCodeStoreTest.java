@@ -0,0 +1,112 @@
+package com.sertac.ai.verification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InMemoryVerificationCodeStoreTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Mock
+    private VerificationCodeAuditWriter auditWriter;
+
+    private InMemoryVerificationCodeStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new InMemoryVerificationCodeStore(auditWriter, Duration.ofMinutes(5), Duration.ofMinutes(1), 1000, nanos::get);
+    }
+
+    @Test
+    void consume_ShouldAcceptIssuedCodeOnce() {
+        assertTrue(store.issue(EMAIL, "123456"));
+
+        assertTrue(store.consume(EMAIL, "123456"));
+        assertFalse(store.consume(EMAIL, "123456"));
+        verify(auditWriter).issued(eq(EMAIL), eq("123456"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(auditWriter).used(eq(EMAIL), eq("123456"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void consume_ShouldKeepCodeAfterWrongGuess() {
+        store.issue(EMAIL, "123456");
+
+        assertFalse(store.consume(EMAIL, "000000"));
+        assertTrue(store.consume(EMAIL, "123456"));
+        verify(auditWriter, times(1)).used(anyString(), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void consume_ShouldRejectExpiredCode() {
+        store.issue(EMAIL, "123456");
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        assertFalse(store.consume(EMAIL, "123456"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void issue_ShouldRefuseWithinCooldownAndReplaceAfterIt() {
+        assertTrue(store.issue(EMAIL, "111111"));
+        assertFalse(store.issue(EMAIL, "222222"));
+        assertTrue(store.consume(EMAIL, "111111"));
+
+        // A used code no longer blocks a new one
+        assertTrue(store.issue(EMAIL, "333333"));
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertTrue(store.issue(EMAIL, "444444"));
+
+        assertFalse(store.consume(EMAIL, "333333"));
+        assertTrue(store.consume(EMAIL, "444444"));
+        verify(auditWriter, times(3)).issued(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void consume_ShouldSucceedOnceUnderConcurrentVerifies() throws Exception {
+        store.issue(EMAIL, "123456");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Boolean> verify = () -> {
+                    start.await();
+                    return store.consume(EMAIL, "123456");
+                };
+                results.add(executor.submit(verify));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get() ? 1 : 0;
+            }
+            assertEquals(1, accepted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
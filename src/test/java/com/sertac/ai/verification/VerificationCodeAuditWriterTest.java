@@ -0,0 +1,105 @@
+package com.sertac.ai.verification;
+
+import com.sertac.ai.model.enums.VerificationCodeStatus;
+import com.sertac.ai.repository.VerificationCodeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class VerificationCodeAuditWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Mock
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerificationCodeAuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new VerificationCodeAuditWriter(verificationCodeRepository, transactionManager, 3, 2, Duration.ofMillis(10), meterRegistry);
+    }
+
+    @Test
+    void flush_ShouldWriteEventsInOrderInBatches() {
+        writer.issued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+        writer.used("a@example.com", "111111", NOW.plusMinutes(1));
+        writer.issued("b@example.com", "222222", NOW, NOW.plusMinutes(5));
+
+        writer.flush();
+
+        InOrder inOrder = inOrder(verificationCodeRepository);
+        inOrder.verify(verificationCodeRepository).recordIssued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+        inOrder.verify(verificationCodeRepository).markUsed("a@example.com", "111111", VerificationCodeStatus.ACTIVE,
+                VerificationCodeStatus.USED, NOW.plusMinutes(1));
+        inOrder.verify(verificationCodeRepository).recordIssued("b@example.com", "222222", NOW, NOW.plusMinutes(5));
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(0, writer.queued());
+        assertEquals(3, meterRegistry.get("auth.verification_codes.audit").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    void enqueue_ShouldDropEventsWhenQueueIsFull() {
+        for (int i = 0; i < 5; i++) {
+            writer.issued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+        }
+
+        assertEquals(3, writer.queued());
+        assertEquals(2, meterRegistry.get("auth.verification_codes.audit").tag("outcome", "dropped").counter().count());
+    }
+
+    @Test
+    void flush_ShouldDropFailedBatchAndContinue() {
+        doThrow(new IllegalStateException("database down")).doNothing()
+            .when(verificationCodeRepository).recordIssued(anyString(), anyString(), any(), any());
+        writer.issued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+        writer.issued("b@example.com", "222222", NOW, NOW.plusMinutes(5));
+        writer.issued("c@example.com", "333333", NOW, NOW.plusMinutes(5));
+
+        writer.flush();
+
+        assertEquals(0, writer.queued());
+        assertEquals(2, meterRegistry.get("auth.verification_codes.audit").tag("outcome", "failed").counter().count());
+        assertEquals(1, meterRegistry.get("auth.verification_codes.audit").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    void start_ShouldFlushOnItsOwnThread() throws InterruptedException {
+        writer.start();
+        try {
+            writer.issued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+
+            verify(verificationCodeRepository, timeout(1000)).recordIssued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void shutdown_ShouldFlushWhatIsStillQueued() throws InterruptedException {
+        writer.issued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+
+        writer.shutdown();
+
+        assertEquals(0, writer.queued());
+        verify(verificationCodeRepository).recordIssued("a@example.com", "111111", NOW, NOW.plusMinutes(5));
+    }
+}